@@ -0,0 +1,80 @@
+package graphs;
+
+import java.util.*;
+
+//проверка delta-stepping на совпадение с последовательной Дейкстрой: для графов всех форм из SyntheticGraphs
+//и случайных мелких графов (с нулевыми весами и разной шириной корзин) сравниваются расстояния до всех вершин,
+//а для каждой достижимой вершины проверяется, что ребро к родителю лежит на кратчайшем пути и что цепочка
+//родителей доходит до источника. код возврата 1, если нашлось расхождение.
+//запуск: java -cp benchmarks/target/benchmarks.jar graphs.DeltaSteppingCheck [размер] [число источников]
+public class DeltaSteppingCheck {
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int sources = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Random random = new Random(42);
+        int checks = 0;
+        try {
+            for (String shape : new String[]{"random", "powerlaw", "grid", "road"}) {
+                for (boolean directed : new boolean[]{false, true}) {
+                    Graph<Integer> graph = SyntheticGraphs.generate(shape, size, directed, 42);
+                    for (int i = 0; i < sources; i++) {
+                        int source = random.nextInt(size);
+                        check(graph, source, graph.parallelShortestPaths(source), shape);
+                        check(graph, source, graph.parallelShortestPaths(source, 1 + random.nextInt(200)), shape);
+                        checks += 2;
+                    }
+                }
+            }
+            for (int trial = 0; trial < 1000; trial++) {
+                Graph<Integer> graph = new Graph<>(random.nextBoolean());
+                int n = 1 + random.nextInt(100);
+                for (int v = 0; v < n; v++) {
+                    graph.addVertex(v);
+                }
+                //в части графов почти все веса нулевые: проверка цепочек по ребрам нулевого веса
+                int maxWeight = random.nextInt(3) == 0 ? 2 : 1000;
+                for (int e = random.nextInt(4 * n); e > 0; e--) {
+                    graph.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(maxWeight));
+                }
+                int source = random.nextInt(n);
+                ShortestPathTree<Integer> tree = random.nextBoolean()
+                    ? graph.parallelShortestPaths(source)
+                    : graph.parallelShortestPaths(source, 1 + random.nextInt(50));
+                check(graph, source, tree, "случайный #" + trial);
+                checks++;
+            }
+        } catch (IllegalStateException e) {
+            System.err.println("расхождение: " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("delta-stepping совпал с Дейкстрой, проверок: " + checks);
+    }
+
+    private static void check(Graph<Integer> graph, int source, ShortestPathTree<Integer> tree, String name) {
+        ShortestPathTree<Integer> expected = graph.shortestPaths(source);
+        CsrGraph<Integer> snapshot = graph.freeze();
+        int s = snapshot.indexOf(source);
+        for (int v = 0; v < snapshot.vertexCount(); v++) {
+            if (tree.distance(v) != expected.distance(v)) {
+                throw new IllegalStateException(name + ", источник " + source + ", вершина " + snapshot.vertexAt(v)
+                    + ": " + tree.distance(v) + " вместо " + expected.distance(v));
+            }
+            if (v == s || tree.distance(v) == ShortestPathTree.UNREACHABLE) {
+                continue;
+            }
+            int parent = tree.parent(v);
+            int weight = parent < 0 ? -1 : graph.getEdgeWeight(snapshot.vertexAt(parent), snapshot.vertexAt(v));
+            if (weight < 0 || tree.distance(parent) + weight != tree.distance(v)) {
+                throw new IllegalStateException(name + ", источник " + source + ": неверный родитель вершины "
+                    + snapshot.vertexAt(v));
+            }
+            int steps = 0;
+            for (int at = v; at != s; at = tree.parent(at)) {
+                if (++steps > snapshot.vertexCount()) {
+                    throw new IllegalStateException(name + ", источник " + source + ": цикл в дереве у вершины "
+                        + snapshot.vertexAt(v));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package graphs;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+//изменения графа; каждая операция возвращает граф в исходное состояние, чтобы размер не плыл между итерациями
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphMutationBenchmark {
+    private static final int VERTEX_DEGREE = 8;
+
+    @Param({"random", "powerlaw", "grid", "road"})
+    public String shape;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean directed;
+
+    private Graph<Integer> graph;
+    private Random random;
+    private int extraVertex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = SyntheticGraphs.generate(shape, size, directed, 42);
+        random = new Random(7);
+        extraVertex = size;
+    }
+
+    //новое ребро между случайными вершинами и его удаление
+    @Benchmark
+    public Graph<Integer> addRemoveEdge() {
+        int u = random.nextInt(size);
+        int v = random.nextInt(size);
+        if (graph.getEdgeWeight(u, v) < 0) {
+            graph.addEdge(u, v, 1);
+            graph.removeEdge(u, v);
+        }
+        return graph;
+    }
+
+    //обновление веса ребра, которое уже есть у вершины
+    @Benchmark
+    public Graph<Integer> updateEdgeWeight() {
+        int u = random.nextInt(size);
+        java.util.List<Integer> adjacent = graph.getAdjacent(u);
+        if (!adjacent.isEmpty()) {
+            graph.addEdge(u, adjacent.get(0), 1 + random.nextInt(100));
+        }
+        return graph;
+    }
+
+    //вершина с VERTEX_DEGREE исходящими и входящими ребрами, которая тут же удаляется
+    @Benchmark
+    public Graph<Integer> addRemoveVertex() {
+        graph.addVertex(extraVertex);
+        for (int i = 0; i < VERTEX_DEGREE; i++) {
+            graph.addEdge(extraVertex, random.nextInt(size), 1);
+            graph.addEdge(random.nextInt(size), extraVertex, 1);
+        }
+        graph.removeVertex(extraVertex);
+        return graph;
+    }
+
+    //изменение, после которого следующий запрос вынужден пересобрать снимок CSR
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public java.util.List<Integer> mutateThenDijkstra() {
+        int u = random.nextInt(size);
+        int v = random.nextInt(size);
+        if (graph.getEdgeWeight(u, v) < 0) {
+            graph.addEdge(u, v, 1 + random.nextInt(100));
+            graph.removeEdge(u, v);
+        }
+        return graph.dijkstra(random.nextInt(size), random.nextInt(size));
+    }
+}
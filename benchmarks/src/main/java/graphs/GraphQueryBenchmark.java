@@ -0,0 +1,110 @@
+package graphs;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+//запросы на чтение к неизменяемому во время измерения графу; снимок CSR строится один раз в setup
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphQueryBenchmark {
+    private static final int QUERIES = 1024;
+    private static final int MULTI_SOURCES = 64;
+
+    @Param({"random", "powerlaw", "grid", "road"})
+    public String shape;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean directed;
+
+    private Graph<Integer> graph;
+    private int[] sources;
+    private int[] targets;
+    private java.util.List<Integer> multiSources;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = SyntheticGraphs.generate(shape, size, directed, 42);
+        graph.freeze();
+        Random random = new Random(7);
+        sources = new int[QUERIES];
+        targets = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            sources[i] = random.nextInt(size);
+            targets[i] = random.nextInt(size);
+        }
+        multiSources = new java.util.ArrayList<>();
+        for (int i = 0; i < MULTI_SOURCES; i++) {
+            multiSources.add(sources[i]);
+        }
+    }
+
+    private int nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return next;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public java.util.List<Integer> getAdjacent() {
+        return graph.getAdjacent(sources[nextQuery()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public java.util.List<Integer> dfs() {
+        return graph.dfs(sources[nextQuery()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public java.util.List<Integer> bfs() {
+        return graph.bfs(sources[nextQuery()]);
+    }
+
+    @Benchmark
+    public java.util.List<Integer> dijkstra() {
+        int q = nextQuery();
+        return graph.dijkstra(sources[q], targets[q]);
+    }
+
+    //полное дерево от одного источника: последовательная Дейкстра против параллельного delta-stepping
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ShortestPathTree<Integer> shortestPaths() {
+        return graph.shortestPaths(sources[nextQuery()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ShortestPathTree<Integer> parallelShortestPaths() {
+        return graph.parallelShortestPaths(sources[nextQuery()]);
+    }
+
+    //расстояния от MULTI_SOURCES источников построчно, поиски параллельно на общем ForkJoinPool
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void multiSourceDistances(Blackhole blackhole) {
+        graph.distancesFrom(multiSources, (source, distances) -> blackhole.consume(distances[source]));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void bfsVisitor(Blackhole blackhole) {
+        graph.bfs(sources[nextQuery()], new TraversalVisitor<Integer>() {
+            @Override
+            public void preVisit(Integer vertex) {
+                blackhole.consume(vertex);
+            }
+        });
+    }
+}
@@ -0,0 +1,97 @@
+package graphs;
+
+import java.util.*;
+
+//генераторы тестовых графов для бенчмарков; одинаковый seed дает одинаковый граф
+final class SyntheticGraphs {
+    private SyntheticGraphs() {
+    }
+
+    static Graph<Integer> generate(String shape, int vertices, boolean directed, long seed) {
+        Random random = new Random(seed);
+        EdgeBatch batch = new EdgeBatch();
+        switch (shape) {
+            case "random":
+                random(vertices, random, batch);
+                break;
+            case "powerlaw":
+                powerLaw(vertices, random, batch);
+                break;
+            case "grid":
+                grid(vertices, random, batch, false);
+                break;
+            case "road":
+                grid(vertices, random, batch, true);
+                break;
+            default:
+                throw new IllegalArgumentException("Неизвестный тип графа: " + shape);
+        }
+        Graph<Integer> graph = new Graph<>(directed);
+        for (int i = 0; i < vertices; i++) {
+            graph.addVertex(i);
+        }
+        graph.addEdges(batch.from, batch.to, batch.weights());
+        return graph;
+    }
+
+    //случайный граф со средней степенью 8
+    private static void random(int n, Random random, EdgeBatch batch) {
+        for (long i = 0; i < 8L * n; i++) {
+            batch.add(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(100));
+        }
+    }
+
+    //предпочтительное присоединение: каждая новая вершина соединяется с 4 вершинами пропорционально их степени
+    private static void powerLaw(int n, Random random, EdgeBatch batch) {
+        int[] endpoints = new int[8 * n + 2];
+        int size = 0;
+        endpoints[size++] = 0;
+        for (int v = 1; v < n; v++) {
+            for (int k = 0; k < Math.min(4, v); k++) {
+                int u = endpoints[random.nextInt(size)];
+                batch.add(v, u, 1 + random.nextInt(100));
+                endpoints[size++] = u;
+                endpoints[size++] = v;
+            }
+        }
+    }
+
+    //квадратная решетка; вариант "road" выкидывает часть ребер, добавляет диагонали
+    //и делает веса пропорциональными длине с шумом, как в дорожных сетях
+    private static void grid(int n, Random random, EdgeBatch batch, boolean road) {
+        int side = Math.max(1, (int) Math.sqrt(n));
+        for (int v = 0; v < n; v++) {
+            int x = v % side;
+            int y = v / side;
+            if (x + 1 < side && v + 1 < n && (!road || random.nextInt(10) != 0)) {
+                batch.add(v, v + 1, road ? 90 + random.nextInt(30) : 1 + random.nextInt(10));
+            }
+            if (v + side < n && (!road || random.nextInt(10) != 0)) {
+                batch.add(v, v + side, road ? 90 + random.nextInt(30) : 1 + random.nextInt(10));
+            }
+            if (road && x + 1 < side && v + side + 1 < n && random.nextInt(20) == 0) {
+                batch.add(v, v + side + 1, 130 + random.nextInt(40));
+            }
+        }
+        //неполная последняя строка (side * side < n) уже связана с предыдущей ребрами v -> v + side выше
+    }
+
+    private static final class EdgeBatch {
+        final java.util.List<Integer> from = new ArrayList<>();
+        final java.util.List<Integer> to = new ArrayList<>();
+        private int[] weights = new int[1024];
+
+        void add(int u, int v, int weight) {
+            if (from.size() == weights.length) {
+                weights = Arrays.copyOf(weights, weights.length * 2);
+            }
+            weights[from.size()] = weight;
+            from.add(u);
+            to.add(v);
+        }
+
+        int[] weights() {
+            return Arrays.copyOf(weights, from.size());
+        }
+    }
+}
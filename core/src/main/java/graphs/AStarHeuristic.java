@@ -0,0 +1,6 @@
+package graphs;
+
+//нижняя оценка расстояния от vertex до target; не должна превышать реальную длину кратчайшего пути
+interface AStarHeuristic<V> {
+    long estimate(V vertex, V target);
+}
@@ -0,0 +1,37 @@
+package graphs;
+
+//результат BFS: глубина и родитель каждой вершины снимка, -1 для недостижимых
+class BfsTree<V> {
+    private final CsrGraph<V> graph;
+    private final int source;
+    private final int[] depths;
+    private final int[] parents;
+
+    BfsTree(CsrGraph<V> graph, int source, int[] depths, int[] parents) {
+        this.graph = graph;
+        this.source = source;
+        this.depths = depths;
+        this.parents = parents;
+    }
+
+    public V source() {
+        return graph.vertexAt(source);
+    }
+
+    public int depth(V v) {
+        return depths[graph.requireVertex(v, "Вершина не существует в графе")];
+    }
+
+    public V parent(V v) {
+        int parent = parents[graph.requireVertex(v, "Вершина не существует в графе")];
+        return parent == -1 ? null : graph.vertexAt(parent);
+    }
+
+    public int[] depths() {
+        return depths;
+    }
+
+    public int[] parents() {
+        return parents;
+    }
+}
@@ -0,0 +1,499 @@
+package graphs;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//граф для одновременной работы потока записи и потоков запросов.
+//списки ребер вершины - неизменяемые массивы, которые при изменении копируются и подменяются целиком,
+//поэтому читатели обходят их без блокировок. изменения ребер блокируют только полосы (stripes) своих вершин.
+//алгоритмы работают по снимку CsrGraph. эксклюзивный захват при снимке короткий: на нем только фиксируется
+//версия графа, а списки ребер собираются потом, пока изменения ребер продолжаются. для этого каждый список
+//помечен версией, в которой появился, и пока снимок собирается, новые списки помнят предыдущие - снимок
+//берет у вершины последний список не новее своей версии. снимок переиспользуется, пока граф не изменился,
+//а после изменений ребер собирается из предыдущего: участки неизменившихся вершин копируются целиком,
+//заново переводятся в номера только измененные списки. добавление и удаление вершин пересобирает снимок полностью
+class ConcurrentGraph<V> {
+    private static final int STRIPES = 64;
+
+    private final ConcurrentHashMap<V, Vertex> vertices = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    //изменения берут его на чтение и не мешают друг другу; удаление вершины берет на запись,
+    //снимок - на запись только на время фиксации версии, а дальше на чтение, чтобы вершины не удалялись
+    private final ReentrantReadWriteLock epoch = new ReentrantReadWriteLock();
+    private final AtomicLong version = new AtomicLong();
+    //меняется при добавлении и удалении вершин: тогда снимок нельзя собрать из предыдущего
+    private final AtomicLong vertexSetVersion = new AtomicLong();
+    private final boolean isDirected;
+    private volatile Frozen<V> snapshot;
+    //снимки собираются по одному
+    private final ReentrantLock freezing = new ReentrantLock();
+    //версия снимка, который сейчас собирается, или NOT_PINNED; пока она задана, новые списки ребер
+    //помнят предыдущие. пишется под эпохой на запись, поэтому изменения под эпохой на чтение видят ее точно
+    private volatile long pinned = NOT_PINNED;
+    private static final long NOT_PINNED = Long.MAX_VALUE;
+
+    public ConcurrentGraph(boolean isDirected) {
+        this.isDirected = isDirected;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public ConcurrentGraph() {
+        this(false);
+    }
+
+    //снимок и версия графа, по которой он собран, публикуются вместе одной ссылкой; вершины и их списки
+    //ребер в порядке номеров снимка нужны, чтобы собрать следующий снимок из этого
+    private static final class Frozen<V> {
+        final CsrGraph<V> graph;
+        final long version;
+        final long vertexSetVersion;
+        final Vertex[] owners;
+        final Edges[] edges;
+        final Map<V, Integer> index;
+
+        Frozen(CsrGraph<V> graph, long version, long vertexSetVersion, Vertex[] owners, Edges[] edges,
+               Map<V, Integer> index) {
+            this.graph = graph;
+            this.version = version;
+            this.vertexSetVersion = vertexSetVersion;
+            this.owners = owners;
+            this.edges = edges;
+            this.index = index;
+        }
+    }
+
+    private static final Object[] NO_VERTICES = new Object[0];
+
+    //соседи и веса меняются только вместе, заменой всего объекта
+    private static final class Edges {
+        static final Edges EMPTY = new Edges(NO_VERTICES, new int[0], 0, null);
+
+        final Object[] targets;
+        final int[] weights;
+        //версия графа, в которой список появился, и предыдущий список, если его ждет собираемый снимок
+        final long stamp;
+        final Edges previous;
+
+        Edges(Object[] targets, int[] weights, long stamp, Edges previous) {
+            this.targets = targets;
+            this.weights = weights;
+            this.stamp = stamp;
+            this.previous = previous;
+        }
+
+        //список, который был у вершины в версии графа at
+        Edges at(long at) {
+            Edges edges = this;
+            while (edges.stamp > at) {
+                edges = edges.previous;
+            }
+            return edges;
+        }
+    }
+
+    private static final class Vertex {
+        //версия графа, в которой вершина добавлена; до конца addVertex - NOT_PINNED, то есть "еще нет"
+        volatile long created = NOT_PINNED;
+        volatile Edges out = Edges.EMPTY;
+        //входящие ребра, только для ориентированного графа
+        volatile Object[] predecessors = NO_VERTICES;
+    }
+
+    public void addVertex(V v) {
+        if (v == null) {
+            throw new IllegalArgumentException("Вершина не может быть null");
+        }
+        epoch.readLock().lock();
+        try {
+            Vertex vertex = new Vertex();
+            if (vertices.putIfAbsent(v, vertex) == null) {
+                vertexSetVersion.incrementAndGet();
+                vertex.created = version.incrementAndGet();
+            }
+        } finally {
+            epoch.readLock().unlock();
+        }
+    }
+
+    public void addEdge(V from, V to, int weight) {
+        epoch.readLock().lock();
+        try {
+            Vertex source = vertices.get(from);
+            Vertex target = vertices.get(to);
+            if (source == null || target == null) {
+                throw new IllegalArgumentException("Обе вершины должны существовать в графе");
+            }
+            lockPair(from, to);
+            try {
+                long stamp = version.incrementAndGet();
+                putEdge(source, to, weight, stamp);
+                if (isDirected) {
+                    target.predecessors = withVertex(target.predecessors, from);
+                } else {
+                    putEdge(target, from, weight, stamp);
+                }
+            } finally {
+                unlockPair(from, to);
+            }
+        } finally {
+            epoch.readLock().unlock();
+        }
+    }
+
+    public void addEdge(V from, V to) {
+        addEdge(from, to, 1);
+    }
+
+    public void removeEdge(V from, V to) {
+        epoch.readLock().lock();
+        try {
+            Vertex source = vertices.get(from);
+            Vertex target = vertices.get(to);
+            if (source == null || target == null) {
+                throw new IllegalArgumentException("Обе вершины должны существовать в графе");
+            }
+            lockPair(from, to);
+            try {
+                long stamp = version.incrementAndGet();
+                boolean removed = removeEdge(source, to, stamp);
+                if (isDirected) {
+                    if (removed) {
+                        target.predecessors = withoutVertex(target.predecessors, from);
+                    }
+                } else {
+                    removeEdge(target, from, stamp);
+                }
+            } finally {
+                unlockPair(from, to);
+            }
+        } finally {
+            epoch.readLock().unlock();
+        }
+    }
+
+    //затрагивает много полос сразу, поэтому выполняется эксклюзивно; удаление вершин редкое
+    public void removeVertex(V v) {
+        epoch.writeLock().lock();
+        try {
+            Vertex removed = vertices.remove(v);
+            if (removed == null) {
+                throw new IllegalArgumentException("Вершина не существует в графе");
+            }
+            vertexSetVersion.incrementAndGet();
+            long stamp = version.incrementAndGet();
+            for (Object to : removed.out.targets) {
+                Vertex neighbour = vertices.get(to);
+                if (neighbour == null) {
+                    continue;
+                }
+                if (isDirected) {
+                    neighbour.predecessors = withoutVertex(neighbour.predecessors, v);
+                } else {
+                    removeEdge(neighbour, v, stamp);
+                }
+            }
+            for (Object from : removed.predecessors) {
+                Vertex neighbour = vertices.get(from);
+                if (neighbour != null) {
+                    removeEdge(neighbour, v, stamp);
+                }
+            }
+        } finally {
+            epoch.writeLock().unlock();
+        }
+    }
+
+    public java.util.List<V> getAdjacent(V v) {
+        Vertex vertex = vertices.get(v);
+        if (vertex == null) {
+            throw new IllegalArgumentException("Вершина не существует в графе");
+        }
+        return toList(vertex.out.targets);
+    }
+
+    public java.util.List<V> getPredecessors(V v) {
+        Vertex vertex = vertices.get(v);
+        if (vertex == null) {
+            throw new IllegalArgumentException("Вершина не существует в графе");
+        }
+        return toList(isDirected ? vertex.predecessors : vertex.out.targets);
+    }
+
+    public int getEdgeWeight(V from, V to) {
+        Vertex vertex = vertices.get(from);
+        if (vertex == null) {
+            return -1;
+        }
+        Edges out = vertex.out;
+        for (int i = 0; i < out.targets.length; i++) {
+            if (out.targets[i].equals(to)) {
+                return out.weights[i];
+            }
+        }
+        return -1;
+    }
+
+    public java.util.List<V> dfs(V start) {
+        return freeze().dfs(start);
+    }
+
+    public void dfs(V start, TraversalVisitor<V> visitor) {
+        freeze().dfs(start, visitor);
+    }
+
+    public java.util.List<V> bfs(V start) {
+        return freeze().bfs(start);
+    }
+
+    public void bfs(V start, TraversalVisitor<V> visitor) {
+        freeze().bfs(start, visitor);
+    }
+
+    public java.util.List<V> dijkstra(V start, V end) {
+        return freeze().dijkstra(start, end);
+    }
+
+    public ShortestPathTree<V> shortestPaths(V start) {
+        return freeze().shortestPaths(start);
+    }
+
+    public Set<V> getVertices() {
+        return new HashSet<>(vertices.keySet());
+    }
+
+    public boolean containsVertex(V v) {
+        return vertices.containsKey(v);
+    }
+
+    public boolean isDirected() {
+        return isDirected;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    //согласованный снимок всего графа на один момент времени
+    public CsrGraph<V> freeze() {
+        Frozen<V> current = snapshot;
+        if (current != null && current.version == version.get()) {
+            return current.graph;
+        }
+        freezing.lock();
+        try {
+            current = snapshot;
+            if (current != null && current.version == version.get()) {
+                return current.graph;
+            }
+            long captured;
+            long vertexSet;
+            //все начатые изменения закончены, а новые получат версии больше captured. эпоха понижается
+            //до чтения: изменения ребер идут дальше, а удаление вершин ждет, пока снимок не соберется
+            epoch.writeLock().lock();
+            try {
+                captured = version.get();
+                vertexSet = vertexSetVersion.get();
+                pinned = captured;
+                epoch.readLock().lock();
+            } finally {
+                epoch.writeLock().unlock();
+            }
+            try {
+                Frozen<V> built = current != null && current.vertexSetVersion == vertexSet
+                    ? rebuild(current, captured)
+                    : build(captured, vertexSet);
+                snapshot = built;
+                return built.graph;
+            } finally {
+                pinned = NOT_PINNED;
+                epoch.readLock().unlock();
+            }
+        } finally {
+            freezing.unlock();
+        }
+    }
+
+    //снимок с нуля: вершины в порядке обхода словаря, кроме добавленных после captured
+    private Frozen<V> build(long captured, long vertexSet) {
+        java.util.List<V> keys = new ArrayList<>(vertices.size());
+        java.util.List<Vertex> owners = new ArrayList<>(vertices.size());
+        for (Map.Entry<V, Vertex> entry : vertices.entrySet()) {
+            if (entry.getValue().created <= captured) {
+                keys.add(entry.getKey());
+                owners.add(entry.getValue());
+            }
+        }
+        int n = keys.size();
+        Map<V, Integer> index = new HashMap<>(n * 4 / 3 + 1);
+        for (int i = 0; i < n; i++) {
+            index.put(keys.get(i), i);
+        }
+        Edges[] edges = new Edges[n];
+        long edgeCount = 0;
+        for (int i = 0; i < n; i++) {
+            edges[i] = owners.get(i).out.at(captured);
+            edgeCount += edges[i].targets.length;
+        }
+        int[] offsets = new int[n + 1];
+        int[] csrTargets = new int[(int) edgeCount];
+        int[] csrWeights = new int[(int) edgeCount];
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            offsets[i] = e;
+            e = translate(edges[i], index, csrTargets, csrWeights, e);
+        }
+        offsets[n] = e;
+
+        CsrGraph<V> graph = new CsrGraph<>(keys.toArray(), index, offsets, csrTargets, csrWeights, isDirected);
+        return new Frozen<>(graph, captured, vertexSet, owners.toArray(new Vertex[0]), edges, index);
+    }
+
+    //вершины те же, что в previous: номера и словарь переиспользуются, а участки вершин, чей список ребер
+    //не сменился, копируются из предыдущего снимка без перевода меток в номера
+    private Frozen<V> rebuild(Frozen<V> previous, long captured) {
+        Vertex[] owners = previous.owners;
+        int n = owners.length;
+        Edges[] edges = new Edges[n];
+        long edgeCount = 0;
+        for (int i = 0; i < n; i++) {
+            edges[i] = owners[i].out.at(captured);
+            edgeCount += edges[i].targets.length;
+        }
+        CsrGraph<V> old = previous.graph;
+        int[] offsets = new int[n + 1];
+        int[] csrTargets = new int[(int) edgeCount];
+        int[] csrWeights = new int[(int) edgeCount];
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            offsets[i] = e;
+            if (edges[i] == previous.edges[i]) {
+                int from = old.offsets[i];
+                int length = old.offsets[i + 1] - from;
+                System.arraycopy(old.targets, from, csrTargets, e, length);
+                System.arraycopy(old.weights, from, csrWeights, e, length);
+                e += length;
+            } else {
+                e = translate(edges[i], previous.index, csrTargets, csrWeights, e);
+            }
+        }
+        offsets[n] = e;
+
+        Object[] ids = new Object[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = old.vertexAt(i);
+        }
+        CsrGraph<V> graph = new CsrGraph<>(ids, previous.index, offsets, csrTargets, csrWeights, isDirected);
+        return new Frozen<>(graph, captured, previous.vertexSetVersion, owners, edges, previous.index);
+    }
+
+    private static <V> int translate(Edges out, Map<V, Integer> index, int[] targets, int[] weights, int e) {
+        for (int j = 0; j < out.targets.length; j++) {
+            targets[e] = index.get(out.targets[j]);
+            weights[e] = out.weights[j];
+            e++;
+        }
+        return e;
+    }
+
+    private static int stripeIndex(Object v) {
+        return (v.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    //полосы берутся в порядке номеров, чтобы два встречных изменения не заблокировали друг друга
+    private void lockPair(V a, V b) {
+        int i = stripeIndex(a);
+        int j = stripeIndex(b);
+        stripes[Math.min(i, j)].lock();
+        if (i != j) {
+            stripes[Math.max(i, j)].lock();
+        }
+    }
+
+    private void unlockPair(V a, V b) {
+        int i = stripeIndex(a);
+        int j = stripeIndex(b);
+        if (i != j) {
+            stripes[Math.max(i, j)].unlock();
+        }
+        stripes[Math.min(i, j)].unlock();
+    }
+
+    //вызывается под полосой вершины (или под эпохой на запись) и под эпохой на чтение
+    private void replace(Vertex vertex, Object[] targets, int[] weights, long stamp) {
+        Edges old = vertex.out;
+        vertex.out = new Edges(targets, weights, stamp, pinned != NOT_PINNED ? old : null);
+    }
+
+    private void putEdge(Vertex vertex, Object to, int weight, long stamp) {
+        Edges out = vertex.out;
+        Object[] targets = out.targets;
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i].equals(to)) {
+                int[] weights = out.weights.clone();
+                weights[i] = weight;
+                replace(vertex, targets, weights, stamp);
+                return;
+            }
+        }
+        Object[] newTargets = Arrays.copyOf(targets, targets.length + 1);
+        int[] newWeights = Arrays.copyOf(out.weights, targets.length + 1);
+        newTargets[targets.length] = to;
+        newWeights[targets.length] = weight;
+        replace(vertex, newTargets, newWeights, stamp);
+    }
+
+    private boolean removeEdge(Vertex vertex, Object to, long stamp) {
+        Edges out = vertex.out;
+        Object[] targets = out.targets;
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i].equals(to)) {
+                Object[] newTargets = new Object[targets.length - 1];
+                int[] newWeights = new int[targets.length - 1];
+                System.arraycopy(targets, 0, newTargets, 0, i);
+                System.arraycopy(targets, i + 1, newTargets, i, targets.length - i - 1);
+                System.arraycopy(out.weights, 0, newWeights, 0, i);
+                System.arraycopy(out.weights, i + 1, newWeights, i, targets.length - i - 1);
+                replace(vertex, newTargets, newWeights, stamp);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Object[] withVertex(Object[] array, Object v) {
+        for (Object existing : array) {
+            if (existing.equals(v)) {
+                return array;
+            }
+        }
+        Object[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = v;
+        return result;
+    }
+
+    private static Object[] withoutVertex(Object[] array, Object v) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i].equals(v)) {
+                Object[] result = new Object[array.length - 1];
+                System.arraycopy(array, 0, result, 0, i);
+                System.arraycopy(array, i + 1, result, i, array.length - i - 1);
+                return result;
+            }
+        }
+        return array;
+    }
+
+    @SuppressWarnings("unchecked")
+    private java.util.List<V> toList(Object[] array) {
+        java.util.List<V> result = new ArrayList<>(array.length);
+        for (Object v : array) {
+            result.add((V) v);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,323 @@
+package graphs;
+
+import java.util.*;
+
+//неизменяемый снимок графа в формате CSR: вершины пронумерованы 0..n-1,
+//исходящие ребра вершины i лежат в targets/weights на отрезке [offsets[i], offsets[i + 1])
+class CsrGraph<V> {
+    private final Object[] vertices;
+    //словарь "вершина -> id" строится лениво: снимку, загруженному с диска, он нужен только для запросов по меткам
+    private volatile Map<V, Integer> ids;
+    final int[] offsets;
+    final int[] targets;
+    final int[] weights;
+    private final boolean isDirected;
+    private volatile CsrGraph<V> reverse;
+
+    CsrGraph(Object[] vertices, Map<V, Integer> ids, int[] offsets, int[] targets, int[] weights, boolean isDirected) {
+        this.vertices = vertices;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.isDirected = isDirected;
+    }
+
+    CsrGraph(Object[] vertices, int[] offsets, int[] targets, int[] weights, boolean isDirected) {
+        this(vertices, null, offsets, targets, weights, isDirected);
+    }
+
+    private Map<V, Integer> ids() {
+        Map<V, Integer> result = ids;
+        if (result == null) {
+            result = new HashMap<>(vertices.length * 4 / 3 + 1);
+            for (int i = 0; i < vertices.length; i++) {
+                result.put(vertexAt(i), i);
+            }
+            ids = result;
+        }
+        return result;
+    }
+
+    public int vertexCount() {
+        return vertices.length;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    public int indexOf(V v) {
+        Integer id = ids().get(v);
+        return id == null ? -1 : id;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V vertexAt(int id) {
+        return (V) vertices[id];
+    }
+
+    public int degree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    int requireVertex(V v, String message) {
+        Integer id = ids().get(v);
+        if (id == null) {
+            throw new IllegalArgumentException(message);
+        }
+        return id;
+    }
+
+    public java.util.List<V> getAdjacent(V v) {
+        int id = requireVertex(v, "Вершина не существует в графе");
+        java.util.List<V> adjacent = new ArrayList<>(degree(id));
+        for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+            adjacent.add(vertexAt(targets[e]));
+        }
+        return adjacent;
+    }
+
+    public int getEdgeWeight(V from, V to) {
+        Integer u = ids().get(from);
+        Integer v = ids().get(to);
+        if (u == null || v == null) {
+            return -1;
+        }
+        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+            if (targets[e] == v) {
+                return weights[e];
+            }
+        }
+        return -1;
+    }
+
+    public java.util.List<V> dfs(V start) {
+        int s = requireVertex(start, "Начальная вершина не существует в графе");
+        return toVertices(new TraversalEngine<>(this).dfsOrder(s));
+    }
+
+    public void dfs(V start, TraversalVisitor<V> visitor) {
+        int s = requireVertex(start, "Начальная вершина не существует в графе");
+        new TraversalEngine<>(this).dfs(s, visitor);
+    }
+
+    public java.util.List<V> bfs(V start) {
+        int s = requireVertex(start, "Начальная вершина не существует в графе");
+        return toVertices(new TraversalEngine<>(this).bfsOrder(s));
+    }
+
+    public void bfs(V start, TraversalVisitor<V> visitor) {
+        int s = requireVertex(start, "Начальная вершина не существует в графе");
+        new TraversalEngine<>(this).bfs(s, visitor);
+    }
+
+    java.util.List<V> toVertices(int[] order) {
+        java.util.List<V> vertices = new ArrayList<>(order.length);
+        for (int id : order) {
+            vertices.add(vertexAt(id));
+        }
+        return vertices;
+    }
+
+    public java.util.List<V> dijkstra(V start, V end) {
+        if (!ids().containsKey(start) || !ids().containsKey(end)) {
+            throw new IllegalArgumentException("Вершины должны существовать в графе");
+        }
+        return new ShortestPathEngine<>(this).path(ids().get(start), ids().get(end));
+    }
+
+    public ShortestPathTree<V> shortestPaths(V start) {
+        int s = requireVertex(start, "Начальная вершина не существует в графе");
+        return new ShortestPathEngine<>(this).tree(s);
+    }
+
+    //граф с обращенными ребрами и теми же id вершин; для неориентированного графа это он сам
+    public CsrGraph<V> reverse() {
+        if (!isDirected) {
+            return this;
+        }
+        CsrGraph<V> result = reverse;
+        if (result == null) {
+            result = buildReverse();
+            reverse = result;
+        }
+        return result;
+    }
+
+    private CsrGraph<V> buildReverse() {
+        int n = vertices.length;
+        int[] reverseOffsets = new int[n + 1];
+        int[] reverseTargets = new int[targets.length];
+        int[] reverseWeights = new int[weights.length];
+        for (int target : targets) {
+            reverseOffsets[target + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            reverseOffsets[i + 1] += reverseOffsets[i];
+        }
+        int[] fill = Arrays.copyOf(reverseOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int slot = fill[targets[e]]++;
+                reverseTargets[slot] = u;
+                reverseWeights[slot] = weights[e];
+            }
+        }
+        CsrGraph<V> result = new CsrGraph<>(vertices, ids, reverseOffsets, reverseTargets, reverseWeights, true);
+        result.reverse = this;
+        return result;
+    }
+
+    //изменяемая копия снимка, например после загрузки с диска
+    public Graph<V> toGraph() {
+        Graph<V> graph = new Graph<>(isDirected);
+        java.util.List<V> from = new ArrayList<>(targets.length);
+        java.util.List<V> to = new ArrayList<>(targets.length);
+        for (int u = 0; u < vertices.length; u++) {
+            graph.addVertex(vertexAt(u));
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                from.add(vertexAt(u));
+                to.add(vertexAt(targets[e]));
+            }
+        }
+        graph.addEdges(from, to, weights);
+        return graph;
+    }
+
+    public Set<V> getVertices() {
+        return new HashSet<>(ids().keySet());
+    }
+
+    //делимые Spliterator по вершинам и по ребрам для параллельных потоков: куски режутся пополам
+    //по номерам, размер каждого куска известен точно. у неориентированного графа каждое ребро
+    //встречается дважды, как и в самом снимке
+    public Spliterator<V> vertexSpliterator() {
+        return new VertexSpliterator(0, vertices.length);
+    }
+
+    public Spliterator<Edge<V>> edgeSpliterator() {
+        return new EdgeSpliterator(0, targets.length);
+    }
+
+    private final class VertexSpliterator implements Spliterator<V> {
+        private int next;
+        private final int end;
+
+        VertexSpliterator(int next, int end) {
+            this.next = next;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(java.util.function.Consumer<? super V> action) {
+            if (next >= end) {
+                return false;
+            }
+            action.accept(vertexAt(next++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(java.util.function.Consumer<? super V> action) {
+            for (; next < end; next++) {
+                action.accept(vertexAt(next));
+            }
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+            int middle = (next + end) >>> 1;
+            if (middle <= next) {
+                return null;
+            }
+            Spliterator<V> prefix = new VertexSpliterator(next, middle);
+            next = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - next;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    //идет по номерам ребер; начало ребра - вершина, в отрезок offsets которой попал номер
+    private final class EdgeSpliterator implements Spliterator<Edge<V>> {
+        private int next;
+        private final int end;
+        private int source;
+
+        EdgeSpliterator(int next, int end) {
+            this.next = next;
+            this.end = end;
+            this.source = sourceOf(next);
+        }
+
+        @Override
+        public boolean tryAdvance(java.util.function.Consumer<? super Edge<V>> action) {
+            if (next >= end) {
+                return false;
+            }
+            while (offsets[source + 1] <= next) {
+                source++;
+            }
+            action.accept(new Edge<>(vertexAt(source), vertexAt(targets[next]), weights[next]));
+            next++;
+            return true;
+        }
+
+        @Override
+        public Spliterator<Edge<V>> trySplit() {
+            int middle = (next + end) >>> 1;
+            if (middle <= next) {
+                return null;
+            }
+            Spliterator<Edge<V>> prefix = new EdgeSpliterator(next, middle);
+            next = middle;
+            source = sourceOf(middle);
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - next;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+
+        //последняя вершина с offsets[v] <= edge; у вершин без ребер отрезки пустые, их пропускаем
+        private int sourceOf(int edge) {
+            if (edge >= targets.length) {
+                return vertices.length - 1;
+            }
+            int low = 0;
+            int high = vertices.length - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (offsets[middle] <= edge) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    public boolean containsVertex(V v) {
+        return ids().containsKey(v);
+    }
+
+    public boolean isDirected() {
+        return isDirected;
+    }
+}
@@ -0,0 +1,440 @@
+package graphs;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+//параллельный поиск кратчайших путей от одного источника до всех вершин (delta-stepping, Meyer и Sanders).
+//вершины раскладываются по корзинам ширины delta по текущему расстоянию; корзины обрабатываются по порядку,
+//а внутри корзины все вершины фронта релаксируются параллельно на общем ForkJoinPool:
+//- легкие ребра (вес <= delta) могут вернуть вершину в ту же корзину, поэтому их проходим раундами,
+//  пока корзина не опустеет;
+//- тяжелые ребра ведут только в следующие корзины, их проходим один раз для всех вершин, осевших в корзине.
+//расстояния обновляются через compareAndSet, так что результат тот же, что у последовательной Дейкстры.
+//родители выбираются после подсчета расстояний: любое ребро u -> v с dist[u] + w = dist[v] годится.
+//работа делится по числу ребер, а не вершин, так что вершина-хаб тоже раскладывается на несколько задач.
+//каждая задача складывает улучшенные вершины в свои массивы по номеру корзины относительно текущей,
+//и в общие корзины попадают только ссылки на эти массивы; отбор фронта (повторы, ушедшие в другую корзину
+//вершины) и склейка массивов тоже идут параллельно, последовательные шаги - только по числу задач.
+//один экземпляр можно использовать из нескольких потоков: все состояние запуска локально
+class DeltaStepping<V> {
+    private static final long INF = ShortestPathTree.UNREACHABLE;
+    //столько ребер просматривает одна листовая задача; меньше - нет смысла делить
+    private static final int GRAIN = 1024;
+    //корзины дальше этого от текущей задача складывает в общий словарь, а не в массив
+    private static final int NEAR_BUCKETS = 64;
+    private static final int WEIGHT_SAMPLE = 10_000;
+
+    private final CsrGraph<V> graph;
+    private final long delta;
+    private final SearchStats stats = new SearchStats();
+
+    DeltaStepping(CsrGraph<V> graph, long delta) {
+        if (delta <= 0) {
+            throw new IllegalArgumentException("Ширина корзины должна быть положительной");
+        }
+        this.graph = graph;
+        this.delta = delta;
+    }
+
+    DeltaStepping(CsrGraph<V> graph) {
+        this(graph, autoDelta(graph));
+    }
+
+    public CsrGraph<V> graph() {
+        return graph;
+    }
+
+    public long delta() {
+        return delta;
+    }
+
+    //счетчики последнего запуска; при одновременных запусках - того, что закончился последним
+    public SearchStats stats() {
+        return stats;
+    }
+
+    //классическая оценка delta ~ (наибольший вес) / (средняя степень): в корзине тогда в среднем мало
+    //повторных релаксаций. вместо максимума берем 99-й процентиль выборки весов, чтобы редкие
+    //очень тяжелые ребра не делали корзины слишком широкими
+    static long autoDelta(CsrGraph<?> graph) {
+        int m = graph.edgeCount();
+        int n = graph.vertexCount();
+        if (m == 0 || n == 0) {
+            return 1;
+        }
+        int samples = Math.min(m, WEIGHT_SAMPLE);
+        int[] weights = new int[samples];
+        for (int i = 0; i < samples; i++) {
+            weights[i] = graph.weights[(int) ((long) i * m / samples)];
+        }
+        Arrays.sort(weights);
+        long heavy = weights[Math.min(samples - 1, (int) (samples * 0.99))];
+        double averageDegree = (double) m / n;
+        return Math.max(1, Math.round(heavy / Math.max(1, averageDegree)));
+    }
+
+    public ShortestPathTree<V> run(int source) {
+        Run run = new Run(source);
+        run.solve();
+
+        int n = graph.vertexCount();
+        long[] result = new long[n];
+        IntStream.range(0, n).parallel().forEach(i -> result[i] = run.distances.get(i));
+        synchronized (stats) {
+            stats.clear();
+            stats.settled = run.settled;
+            stats.relaxed = run.relaxed.sum();
+            stats.pushed = run.pushed.sum();
+            stats.decreased = run.decreased.sum();
+            stats.visited = stats.pushed + 1;
+        }
+        return new ShortestPathTree<>(graph, source, result, parents(source, result));
+    }
+
+    //состояние одного запуска
+    private final class Run {
+        final AtomicLongArray distances;
+        //отметка раунда отсекает повторы вершины во фронте и в списке осевших
+        final AtomicIntegerArray stamp;
+        final TreeMap<Long, Chunks> buckets = new TreeMap<>();
+        final LongAdder relaxed = new LongAdder();
+        final LongAdder pushed = new LongAdder();
+        final LongAdder decreased = new LongAdder();
+        long settled;
+        int round;
+        long current;
+
+        Run(int source) {
+            int n = graph.vertexCount();
+            distances = new AtomicLongArray(n);
+            IntStream.range(0, n).parallel().forEach(i -> distances.set(i, INF));
+            distances.set(source, 0);
+            stamp = new AtomicIntegerArray(n);
+            buckets.computeIfAbsent(0L, b -> new Chunks()).add(new int[]{source});
+        }
+
+        void solve() {
+            while (!buckets.isEmpty()) {
+                Map.Entry<Long, Chunks> first = buckets.pollFirstEntry();
+                current = first.getKey();
+                int[] frontier = select(first.getValue());
+                Chunks settledChunks = new Chunks();
+                while (frontier.length > 0) {
+                    settledChunks.add(frontier);
+                    Chunks again = relax(frontier, true);
+                    frontier = select(again);
+                }
+                //тяжелые ребра: каждую осевшую вершину берем один раз
+                int[] done = select(settledChunks);
+                settled += done.length;
+                relax(done, false);
+            }
+        }
+
+        //вершины из массивов, которые еще лежат в текущей корзине, без повторов, одним массивом.
+        //массивы фильтруются параллельно, смещения результатов считаются по числу массивов
+        int[] select(Chunks chunks) {
+            int round = ++this.round;
+            int count = chunks.arrays.size();
+            int[][] kept = new int[count][];
+            parallelFor(count, chunks.size, i -> kept[i] = filter(chunks.arrays.get(i), round));
+            int[] starts = new int[count + 1];
+            for (int i = 0; i < count; i++) {
+                starts[i + 1] = starts[i] + kept[i].length;
+            }
+            int[] result = new int[starts[count]];
+            parallelFor(count, result.length, i -> System.arraycopy(kept[i], 0, result, starts[i], kept[i].length));
+            return result;
+        }
+
+        private int[] filter(int[] vertices, int round) {
+            int[] kept = new int[vertices.length];
+            int size = 0;
+            for (int v : vertices) {
+                int seen = stamp.get(v);
+                if (seen != round && distances.get(v) / delta == current && stamp.compareAndSet(v, seen, round)) {
+                    kept[size++] = v;
+                }
+            }
+            return size == vertices.length ? kept : Arrays.copyOf(kept, size);
+        }
+
+        //релаксирует легкие или тяжелые ребра фронта; улучшенные вершины попадают в свои корзины,
+        //а те, что остались в текущей корзине, возвращаются отдельно
+        Chunks relax(int[] frontier, boolean light) {
+            int n = frontier.length;
+            //work[i] - число ребер у frontier[0..i], по нему задачи делят работу поровну
+            long[] work = new long[n];
+            int[] offsets = graph.offsets;
+            parallelFor(n, n, i -> work[i] = offsets[frontier[i] + 1] - offsets[frontier[i]]);
+            if (n > GRAIN) {
+                Arrays.parallelPrefix(work, Long::sum);
+            } else {
+                for (int i = 1; i < n; i++) {
+                    work[i] += work[i - 1];
+                }
+            }
+
+            Chunks again = new Chunks();
+            if (n == 0) {
+                return again;
+            }
+            Step step = new Step(frontier, work, light, 0, n, offsets[frontier[0]], offsets[frontier[0] + 1]);
+            if (work[n - 1] <= GRAIN) {
+                step.compute();
+            } else {
+                ForkJoinPool.commonPool().invoke(step);
+            }
+            //склейка - только ссылки на массивы задач, число шагов зависит от числа задач, а не вершин
+            for (Bins bins : step.collected()) {
+                for (int k = 0; k < bins.near.length; k++) {
+                    if (bins.near[k] != null && bins.near[k].size > 0) {
+                        int[] vertices = bins.near[k].toArray();
+                        if (k == 0) {
+                            again.add(vertices);
+                        } else {
+                            buckets.computeIfAbsent(current + k, b -> new Chunks()).add(vertices);
+                        }
+                    }
+                }
+                if (bins.far != null) {
+                    for (Map.Entry<Long, IntList> entry : bins.far.entrySet()) {
+                        buckets.computeIfAbsent(entry.getKey(), b -> new Chunks()).add(entry.getValue().toArray());
+                    }
+                }
+            }
+            return again;
+        }
+
+        //задача над отрезком фронта [from, to); если в отрезке одна вершина, то только над ее ребрами
+        //[edgeFrom, edgeTo), чтобы хаб тоже делился между потоками
+        private final class Step extends RecursiveAction {
+            private final int[] frontier;
+            private final long[] work;
+            private final boolean light;
+            private final int from;
+            private final int to;
+            private final int edgeFrom;
+            private final int edgeTo;
+            private Step left;
+            private Step right;
+            private Bins bins;
+
+            Step(int[] frontier, long[] work, boolean light, int from, int to, int edgeFrom, int edgeTo) {
+                this.frontier = frontier;
+                this.work = work;
+                this.light = light;
+                this.from = from;
+                this.to = to;
+                this.edgeFrom = edgeFrom;
+                this.edgeTo = edgeTo;
+            }
+
+            @Override
+            protected void compute() {
+                long before = from == 0 ? 0 : work[from - 1];
+                long edges = to - from == 1 ? edgeTo - edgeFrom : work[to - 1] - before;
+                if (edges > GRAIN) {
+                    if (to - from > 1) {
+                        //граница по половине ребер, но хотя бы одна вершина в каждой половине
+                        int mid = Arrays.binarySearch(work, from, to, before + edges / 2);
+                        mid = mid < 0 ? -mid - 1 : mid + 1;
+                        mid = Math.max(from + 1, Math.min(to - 1, mid));
+                        left = single(from, mid);
+                        right = single(mid, to);
+                    } else {
+                        int middle = (int) ((edgeFrom + (long) edgeTo) >>> 1);
+                        left = new Step(frontier, work, light, from, to, edgeFrom, middle);
+                        right = new Step(frontier, work, light, from, to, middle, edgeTo);
+                    }
+                    invokeAll(left, right);
+                    return;
+                }
+                bins = new Bins();
+                if (to - from == 1) {
+                    scan(frontier[from], edgeFrom, edgeTo);
+                } else {
+                    int[] offsets = graph.offsets;
+                    for (int i = from; i < to; i++) {
+                        int u = frontier[i];
+                        scan(u, offsets[u], offsets[u + 1]);
+                    }
+                }
+            }
+
+            private Step single(int from, int to) {
+                int[] offsets = graph.offsets;
+                int u = frontier[from];
+                return new Step(frontier, work, light, from, to, offsets[u], offsets[u + 1]);
+            }
+
+            private void scan(int u, int edgeFrom, int edgeTo) {
+                int[] targets = graph.targets;
+                int[] weights = graph.weights;
+                long base = distances.get(u);
+                long scanned = 0;
+                long first = 0;
+                long repeated = 0;
+                for (int e = edgeFrom; e < edgeTo; e++) {
+                    int w = weights[e];
+                    if ((w <= delta) != light) {
+                        continue;
+                    }
+                    scanned++;
+                    int v = targets[e];
+                    long candidate = base + w;
+                    long old = distances.get(v);
+                    while (candidate < old) {
+                        if (distances.compareAndSet(v, old, candidate)) {
+                            if (old == INF) {
+                                first++;
+                            } else {
+                                repeated++;
+                            }
+                            bins.add(candidate / delta - current, v);
+                            break;
+                        }
+                        old = distances.get(v);
+                    }
+                }
+                relaxed.add(scanned);
+                pushed.add(first);
+                decreased.add(repeated);
+            }
+
+            //корзины всех листовых задач поддерева
+            java.util.List<Bins> collected() {
+                java.util.List<Bins> result = new ArrayList<>();
+                ArrayDeque<Step> pending = new ArrayDeque<>();
+                pending.push(this);
+                while (!pending.isEmpty()) {
+                    Step step = pending.pop();
+                    if (step.bins != null) {
+                        result.add(step.bins);
+                    } else {
+                        pending.push(step.right);
+                        pending.push(step.left);
+                    }
+                }
+                return result;
+            }
+        }
+
+        //улучшенные вершины одной задачи: ближние корзины по смещению от текущей, дальние в словаре
+        private final class Bins {
+            final IntList[] near = new IntList[NEAR_BUCKETS];
+            Map<Long, IntList> far;
+
+            void add(long offset, int v) {
+                IntList list;
+                if (offset < NEAR_BUCKETS) {
+                    list = near[(int) offset];
+                    if (list == null) {
+                        list = near[(int) offset] = new IntList();
+                    }
+                } else {
+                    if (far == null) {
+                        far = new HashMap<>();
+                    }
+                    list = far.computeIfAbsent(current + offset, b -> new IntList());
+                }
+                list.add(v);
+            }
+        }
+    }
+
+    //body для каждого i из [0, count); параллельно, только если работы (size) достаточно
+    private static void parallelFor(int count, long size, java.util.function.IntConsumer body) {
+        if (size > GRAIN && count > 1) {
+            IntStream.range(0, count).parallel().forEach(body);
+        } else {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+        }
+    }
+
+    //массивы вершин корзины без склейки; склеиваются один раз при отборе фронта
+    private static final class Chunks {
+        final java.util.List<int[]> arrays = new ArrayList<>();
+        long size;
+
+        void add(int[] vertices) {
+            arrays.add(vertices);
+            size += vertices.length;
+        }
+    }
+
+    private static final class IntList {
+        int[] items = new int[16];
+        int size;
+
+        void add(int v) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = v;
+        }
+
+        int[] toArray() {
+            return size == items.length ? items : Arrays.copyOf(items, size);
+        }
+    }
+
+    //родитель по ребру положительного веса с dist[u] + w = dist[v] выбирается параллельно, и любой
+    //найденный годится: вдоль таких ребер расстояние строго растет, циклов нет. вершинам, до которых
+    //кратчайшие пути доходят только по ребрам нулевого веса, родители раздаются обходом по этим ребрам
+    private int[] parents(int source, long[] distances) {
+        int n = graph.vertexCount();
+        int[] parents = new int[n];
+        Arrays.fill(parents, -1);
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        AtomicBoolean zeroWeights = new AtomicBoolean();
+        IntStream.range(0, n).parallel().forEach(u -> {
+            if (distances[u] == INF) {
+                return;
+            }
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                if (distances[u] + weights[e] == distances[v] && v != source) {
+                    if (weights[e] > 0) {
+                        parents[v] = u;
+                    } else if (!zeroWeights.get()) {
+                        zeroWeights.set(true);
+                    }
+                }
+            }
+        });
+        if (!zeroWeights.get()) {
+            return parents;
+        }
+
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (distances[v] != INF && (parents[v] >= 0 || v == source)) {
+                queue[tail++] = v;
+            }
+        }
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                if (weights[e] == 0 && v != source && parents[v] < 0 && distances[v] == distances[u]) {
+                    parents[v] = u;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return parents;
+    }
+}
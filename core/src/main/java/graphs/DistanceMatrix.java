@@ -0,0 +1,62 @@
+package graphs;
+
+import java.util.*;
+
+//расстояния от нескольких источников до всех вершин снимка в одном массиве long:
+//строка i - источник sources[i], столбец - id вершины в снимке
+class DistanceMatrix<V> {
+    private final CsrGraph<V> graph;
+    private final int[] sources;
+    private final long[] distances;
+    private final int columns;
+    //строка матрицы по id источника, -1 если вершина не источник
+    private final int[] rowOf;
+
+    DistanceMatrix(CsrGraph<V> graph, int[] sources, long[] distances) {
+        this.graph = graph;
+        this.sources = sources;
+        this.distances = distances;
+        this.columns = graph.vertexCount();
+        this.rowOf = new int[columns];
+        Arrays.fill(rowOf, -1);
+        for (int row = sources.length - 1; row >= 0; row--) {
+            rowOf[sources[row]] = row;
+        }
+    }
+
+    public CsrGraph<V> graph() {
+        return graph;
+    }
+
+    public int rows() {
+        return sources.length;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    //id источника строки row
+    public int source(int row) {
+        return sources[row];
+    }
+
+    //ShortestPathTree.UNREACHABLE, если вершина недостижима
+    public long distance(int row, int vertex) {
+        return distances[row * columns + vertex];
+    }
+
+    public long distance(V from, V to) {
+        int source = graph.requireVertex(from, "Вершина не существует в графе");
+        int target = graph.requireVertex(to, "Вершина не существует в графе");
+        if (rowOf[source] < 0) {
+            throw new IllegalArgumentException("Вершина не является источником матрицы");
+        }
+        return distances[rowOf[source] * columns + target];
+    }
+
+    //сам массив без копирования, строки подряд
+    public long[] distances() {
+        return distances;
+    }
+}
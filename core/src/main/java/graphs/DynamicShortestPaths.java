@@ -0,0 +1,296 @@
+package graphs;
+
+import java.util.*;
+
+//поддерживает деревья кратчайших путей от зарегистрированных источников при изменениях графа,
+//не пересчитывая их с нуля (в духе Ramalingam-Reps). подписывается на изменения Graph:
+//- новое или подешевевшее ребро u -> v: если через него до v стало ближе, от v расходится волна
+//  улучшений, как в Дейкстре, и останавливается там, где расстояния не уменьшаются;
+//- удаленное или подорожавшее ребро дерева u -> v: поддерево v отрывается, каждая его вершина
+//  ищет лучшего родителя среди входящих ребер из нетронутой части, и Дейкстра идет только внутри поддерева.
+//работа на одно изменение пропорциональна затронутой области, а не размеру графа.
+//массивы индексируются id вершин словаря графа; веса неотрицательные, как и во всех движках.
+//объект подписан на граф, поэтому ненужный объект закрывают (close)
+class DynamicShortestPaths<V> {
+    private static final long UNREACHABLE = ShortestPathTree.UNREACHABLE;
+
+    private final Graph<V> graph;
+    private final IntGraph structure;
+    private final VertexDictionary<V> dictionary;
+    private final Map<V, Tree> trees = new LinkedHashMap<>();
+    private final Updater updater = new Updater();
+    //общие для всех деревьев рабочие буферы
+    private IndexedDaryHeap heap = new IndexedDaryHeap(0);
+    private boolean[] inSubtree = new boolean[0];
+    private int[] subtree = new int[0];
+    private long updates;
+    private long touchedVertices;
+
+    //дерево от одного источника
+    private final class Tree {
+        final int source;
+        long[] distances = new long[0];
+        int[] parents = new int[0];
+
+        Tree(int source) {
+            this.source = source;
+        }
+    }
+
+    DynamicShortestPaths(Graph<V> graph) {
+        this.graph = graph;
+        this.structure = graph.structure();
+        this.dictionary = graph.dictionary();
+        graph.addListener(updater);
+    }
+
+    //отписывает от графа и забывает все деревья; дальше объектом пользоваться нельзя
+    public void close() {
+        graph.removeListener(updater);
+        trees.clear();
+    }
+
+    //начинает поддерживать дерево от source; первый раз оно строится полным поиском
+    public void track(V source) {
+        int s = requireId(source, "Начальная вершина не существует в графе");
+        if (trees.containsKey(source)) {
+            return;
+        }
+        ensureCapacity();
+        Tree tree = new Tree(s);
+        tree.distances = new long[structure.capacity()];
+        tree.parents = new int[structure.capacity()];
+        Arrays.fill(tree.distances, UNREACHABLE);
+        Arrays.fill(tree.parents, -1);
+        tree.distances[s] = 0;
+        heap.insertOrDecrease(s, 0);
+        propagate(tree);
+        trees.put(source, tree);
+    }
+
+    public void untrack(V source) {
+        trees.remove(source);
+    }
+
+    public Set<V> sources() {
+        return Collections.unmodifiableSet(trees.keySet());
+    }
+
+    public long distance(V source, V target) {
+        Tree tree = requireTree(source);
+        int t = requireId(target, "Вершина не существует в графе");
+        return t < tree.distances.length ? tree.distances[t] : UNREACHABLE;
+    }
+
+    public java.util.List<V> path(V source, V target) {
+        Tree tree = requireTree(source);
+        int t = requireId(target, "Вершина не существует в графе");
+        java.util.List<V> path = new ArrayList<>();
+        if (t >= tree.distances.length || tree.distances[t] == UNREACHABLE) {
+            return path;
+        }
+        for (int at = t; at != -1; at = tree.parents[at]) {
+            path.add(dictionary.label(at));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    //сколько изменений графа обработано и сколько вершин они затронули в сумме по всем деревьям
+    public long updates() {
+        return updates;
+    }
+
+    public long touchedVertices() {
+        return touchedVertices;
+    }
+
+    private Tree requireTree(V source) {
+        Tree tree = trees.get(source);
+        if (tree == null) {
+            throw new IllegalArgumentException("Источник не отслеживается");
+        }
+        return tree;
+    }
+
+    private int requireId(V v, String message) {
+        int id = dictionary.id(v);
+        if (id < 0) {
+            throw new IllegalArgumentException(message);
+        }
+        return id;
+    }
+
+    //новые вершины получают id за пределами массивов; растим их и буферы до емкости графа
+    private void ensureCapacity() {
+        int capacity = structure.capacity();
+        if (inSubtree.length >= capacity) {
+            return;
+        }
+        heap = new IndexedDaryHeap(capacity);
+        inSubtree = new boolean[capacity];
+        subtree = new int[capacity];
+        for (Tree tree : trees.values()) {
+            int old = tree.distances.length;
+            tree.distances = Arrays.copyOf(tree.distances, capacity);
+            tree.parents = Arrays.copyOf(tree.parents, capacity);
+            Arrays.fill(tree.distances, old, capacity, UNREACHABLE);
+            Arrays.fill(tree.parents, old, capacity, -1);
+        }
+    }
+
+    //Дейкстра от вершин, уже лежащих в куче: расстояния только уменьшаются
+    private void propagate(Tree tree) {
+        long[] distances = tree.distances;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            touchedVertices++;
+            if (!structure.containsVertex(u)) {
+                continue;
+            }
+            long base = distances[u];
+            int degree = structure.outDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = structure.target(u, i);
+                long candidate = base + structure.weight(u, i);
+                if (candidate < distances[v]) {
+                    distances[v] = candidate;
+                    tree.parents[v] = u;
+                    heap.insertOrDecrease(v, candidate);
+                }
+            }
+        }
+    }
+
+    //ребро u -> v появилось или подешевело
+    private void decrease(Tree tree, int u, int v, int weight) {
+        if (tree.distances[u] == UNREACHABLE) {
+            return;
+        }
+        long candidate = tree.distances[u] + weight;
+        if (candidate < tree.distances[v]) {
+            tree.distances[v] = candidate;
+            tree.parents[v] = u;
+            heap.insertOrDecrease(v, candidate);
+            propagate(tree);
+        }
+    }
+
+    //ребро дерева u -> v исчезло или подорожало: пересчитываем поддерево v
+    private void increase(Tree tree, int u, int v) {
+        if (tree.parents[v] != u) {
+            return;
+        }
+        //поддерево v: вершины, чья цепочка родителей проходит через v
+        int size = 0;
+        subtree[size++] = v;
+        inSubtree[v] = true;
+        for (int k = 0; k < size; k++) {
+            int x = subtree[k];
+            if (!structure.containsVertex(x)) {
+                continue;
+            }
+            int degree = structure.outDegree(x);
+            for (int i = 0; i < degree; i++) {
+                int y = structure.target(x, i);
+                if (!inSubtree[y] && tree.parents[y] == x) {
+                    inSubtree[y] = true;
+                    subtree[size++] = y;
+                }
+            }
+        }
+
+        //лучший вход в каждую вершину поддерева из нетронутой части дерева
+        for (int k = 0; k < size; k++) {
+            int x = subtree[k];
+            tree.distances[x] = UNREACHABLE;
+            tree.parents[x] = -1;
+        }
+        for (int k = 0; k < size; k++) {
+            int x = subtree[k];
+            if (x == tree.source) {
+                tree.distances[x] = 0;
+                heap.insertOrDecrease(x, 0);
+                continue;
+            }
+            if (!structure.containsVertex(x)) {
+                continue;
+            }
+            long best = UNREACHABLE;
+            int bestParent = -1;
+            int degree = structure.inDegree(x);
+            for (int i = 0; i < degree; i++) {
+                int p = structure.predecessor(x, i);
+                if (inSubtree[p] || tree.distances[p] == UNREACHABLE) {
+                    continue;
+                }
+                long candidate = tree.distances[p] + structure.getEdgeWeight(p, x);
+                if (candidate < best) {
+                    best = candidate;
+                    bestParent = p;
+                }
+            }
+            if (bestParent >= 0) {
+                tree.distances[x] = best;
+                tree.parents[x] = bestParent;
+                heap.insertOrDecrease(x, best);
+            }
+        }
+        for (int k = 0; k < size; k++) {
+            inSubtree[subtree[k]] = false;
+        }
+        //дальше обычная Дейкстра; за пределы поддерева она не выйдет, там расстояния не улучшаются
+        propagate(tree);
+    }
+
+    private final class Updater implements GraphListener<V> {
+        @Override
+        public void vertexAdded(V v) {
+            ensureCapacity();
+        }
+
+        @Override
+        public void vertexRemoved(V v) {
+            trees.remove(v);
+            int id = dictionary.id(v);
+            for (Tree tree : trees.values()) {
+                tree.distances[id] = UNREACHABLE;
+                tree.parents[id] = -1;
+            }
+        }
+
+        @Override
+        public void edgeAdded(V from, V to, int weight, int oldWeight) {
+            ensureCapacity();
+            updates++;
+            int u = dictionary.id(from);
+            int v = dictionary.id(to);
+            for (Tree tree : trees.values()) {
+                if (oldWeight >= 0 && weight > oldWeight) {
+                    increase(tree, u, v);
+                    if (!graph.isDirected()) {
+                        increase(tree, v, u);
+                    }
+                } else if (weight != oldWeight) {
+                    decrease(tree, u, v, weight);
+                    if (!graph.isDirected()) {
+                        decrease(tree, v, u, weight);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void edgeRemoved(V from, V to, int weight) {
+            updates++;
+            int u = dictionary.id(from);
+            int v = dictionary.id(to);
+            for (Tree tree : trees.values()) {
+                increase(tree, u, v);
+                if (!graph.isDirected()) {
+                    increase(tree, v, u);
+                }
+            }
+        }
+    }
+}
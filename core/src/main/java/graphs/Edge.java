@@ -0,0 +1,47 @@
+package graphs;
+
+import java.util.Objects;
+
+//ребро снимка графа для потоков по ребрам: концы и вес
+final class Edge<V> {
+    private final V from;
+    private final V to;
+    private final int weight;
+
+    Edge(V from, V to, int weight) {
+        this.from = from;
+        this.to = to;
+        this.weight = weight;
+    }
+
+    public V from() {
+        return from;
+    }
+
+    public V to() {
+        return to;
+    }
+
+    public int weight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Edge)) {
+            return false;
+        }
+        Edge<?> other = (Edge<?>) o;
+        return weight == other.weight && from.equals(other.from) && to.equals(other.to);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to, weight);
+    }
+
+    @Override
+    public String toString() {
+        return from + " -> " + to + " (" + weight + ")";
+    }
+}
@@ -0,0 +1,294 @@
+package graphs;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+//массовая загрузка списков ребер из файла: файл отображается в память через FileChannel,
+//режется на куски и куски разбираются параллельно, а ребра добавляются пакетами через Graph.addEdges
+//по мере готовности кусков, в порядке файла. вперед разбирается лишь несколько кусков, так что в памяти
+//не лежит весь разобранный файл.
+//текстовый формат: по ребру на строку "from to [weight]", пустые строки и строки с # пропускаются.
+//двоичный формат: заголовок BINARY_MAGIC, версия, число ребер (long), затем тройки int from, to, weight
+class EdgeListLoader {
+    static final int BINARY_MAGIC = 0x47454447;
+    static final int BINARY_VERSION = 1;
+    private static final int BINARY_HEADER = 16;
+    private static final int RECORD_SIZE = 12;
+    private static final long MIN_CHUNK = 1 << 20;
+    private static final long MAX_CHUNK = 1 << 30;
+
+    private EdgeListLoader() {
+    }
+
+    public static void loadText(Path file, Graph<String> graph) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            inOrder(textRanges(channel), range -> parseText(channel, range[0], range[1]),
+                    chunk -> graph.addEdges(Arrays.asList(chunk.from), Arrays.asList(chunk.to), chunk.weights));
+        }
+    }
+
+    public static void loadBinary(Path file, Graph<Integer> graph) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(BINARY_HEADER, channel.size()));
+            if (header.remaining() < BINARY_HEADER || header.getInt() != BINARY_MAGIC) {
+                throw new IOException("Файл не является двоичным списком ребер: " + file);
+            }
+            int version = header.getInt();
+            if (version != BINARY_VERSION) {
+                throw new IOException("Неподдерживаемая версия формата: " + version);
+            }
+            long edgeCount = header.getLong();
+            if (edgeCount < 0) {
+                throw new IOException("Некорректное число ребер в заголовке: " + edgeCount);
+            }
+            //сравнение делением: edgeCount * RECORD_SIZE может переполнить long
+            if (edgeCount > (channel.size() - BINARY_HEADER) / RECORD_SIZE) {
+                throw new IOException("Файл обрезан: ожидалось ребер " + edgeCount);
+            }
+
+            long recordsPerChunk = chunkSize(edgeCount * RECORD_SIZE) / RECORD_SIZE;
+            java.util.List<long[]> ranges = new ArrayList<>();
+            for (long first = 0; first < edgeCount; first += recordsPerChunk) {
+                ranges.add(new long[]{first, Math.min(edgeCount, first + recordsPerChunk)});
+            }
+            inOrder(ranges, range -> readRecords(channel, range[0], range[1]), records -> {
+                int count = records.length / 3;
+                int[] weights = new int[count];
+                for (int i = 0; i < count; i++) {
+                    weights[i] = records[3 * i + 2];
+                }
+                graph.addEdges(new Column(records, 0), new Column(records, 1), weights);
+            });
+        }
+    }
+
+    //столбец троек from, to, weight как список меток: вершины упаковываются только при чтении из списка
+    private static final class Column extends AbstractList<Integer> implements RandomAccess {
+        private final int[] records;
+        private final int field;
+
+        Column(int[] records, int field) {
+            this.records = records;
+            this.field = field;
+        }
+
+        @Override
+        public Integer get(int index) {
+            return records[3 * index + field];
+        }
+
+        @Override
+        public int size() {
+            return records.length / 3;
+        }
+    }
+
+    //разбирает куски параллельно и отдает их insert по одному в порядке ranges; вперед разбирается
+    //не больше двух кусков на поток, поэтому вставка в граф идет одновременно с разбором
+    private static <T> void inOrder(java.util.List<long[]> ranges, Function<long[], T> parse, Consumer<T> insert)
+            throws IOException {
+        int window = 2 * Runtime.getRuntime().availableProcessors();
+        ArrayDeque<CompletableFuture<T>> pending = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (next < ranges.size() || !pending.isEmpty()) {
+                while (next < ranges.size() && pending.size() < window) {
+                    long[] range = ranges.get(next++);
+                    pending.add(CompletableFuture.supplyAsync(() -> parse.apply(range)));
+                }
+                insert.accept(pending.poll().join());
+            }
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        } finally {
+            for (CompletableFuture<T> future : pending) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    public static void writeBinary(Path file, CsrGraph<Integer> graph) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(BINARY_MAGIC);
+            out.writeInt(BINARY_VERSION);
+            out.writeLong(graph.edgeCount());
+            for (int u = 0; u < graph.vertexCount(); u++) {
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    out.writeInt(graph.vertexAt(u));
+                    out.writeInt(graph.vertexAt(graph.targets[e]));
+                    out.writeInt(graph.weights[e]);
+                }
+            }
+        }
+    }
+
+    private static long chunkSize(long total) {
+        long perTask = total / (4L * Runtime.getRuntime().availableProcessors()) + 1;
+        return Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, perTask));
+    }
+
+    //делит файл на куски, каждый из которых заканчивается переводом строки
+    private static java.util.List<long[]> textRanges(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long step = chunkSize(size);
+        java.util.List<long[]> ranges = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + step);
+            if (end < size) {
+                end = nextLineStart(channel, end);
+            }
+            ranges.add(new long[]{start, end});
+            start = end;
+        }
+        return ranges;
+    }
+
+    private static long nextLineStart(FileChannel channel, long pos) throws IOException {
+        long size = channel.size();
+        while (pos < size) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(1 << 16, size - pos));
+            while (window.hasRemaining()) {
+                if (window.get() == '\n') {
+                    return pos + window.position();
+                }
+            }
+            pos += window.limit();
+        }
+        return size;
+    }
+
+    private static final class TextChunk {
+        String[] from = new String[1024];
+        String[] to = new String[1024];
+        int[] weights = new int[1024];
+        int size;
+
+        void add(String u, String v, int weight) {
+            if (size == weights.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            from[size] = u;
+            to[size] = v;
+            weights[size] = weight;
+            size++;
+        }
+
+        TextChunk trim() {
+            from = Arrays.copyOf(from, size);
+            to = Arrays.copyOf(to, size);
+            weights = Arrays.copyOf(weights, size);
+            return this;
+        }
+    }
+
+    private static TextChunk parseText(FileChannel channel, long start, long end) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        TextChunk chunk = new TextChunk();
+        //метки повторяются из строки в строку, поэтому внутри куска одинаковые метки делят один объект String
+        Map<String, String> labels = new HashMap<>();
+        byte[] line = new byte[256];
+        int limit = buffer.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int lineStart = pos;
+            int length = 0;
+            while (pos < limit) {
+                byte b = buffer.get(pos++);
+                if (b == '\n') {
+                    break;
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+            parseLine(line, length, start + lineStart, chunk, labels);
+        }
+        return chunk.trim();
+    }
+
+    private static void parseLine(byte[] line, int length, long offset, TextChunk chunk, Map<String, String> labels) {
+        String[] fields = new String[3];
+        int count = 0;
+        int i = 0;
+        while (i < length) {
+            while (i < length && isSpace(line[i])) {
+                i++;
+            }
+            if (i == length || (count == 0 && line[i] == '#')) {
+                break;
+            }
+            int fieldStart = i;
+            while (i < length && !isSpace(line[i])) {
+                i++;
+            }
+            if (count == 3) {
+                throw new IllegalArgumentException("Некорректная строка в позиции " + offset);
+            }
+            String field = new String(line, fieldStart, i - fieldStart, StandardCharsets.UTF_8);
+            fields[count] = count < 2 ? labels.computeIfAbsent(field, k -> k) : field;
+            count++;
+        }
+        if (count == 0) {
+            return;
+        }
+        if (count < 2) {
+            throw new IllegalArgumentException("Некорректная строка в позиции " + offset);
+        }
+        int weight = 1;
+        if (count == 3) {
+            try {
+                weight = Integer.parseInt(fields[2]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Некорректный вес в позиции " + offset);
+            }
+        }
+        chunk.add(fields[0], fields[1], weight);
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static int[] readRecords(FileChannel channel, long first, long last) {
+        try {
+            long offset = BINARY_HEADER + first * RECORD_SIZE;
+            IntBuffer ints = channel.map(FileChannel.MapMode.READ_ONLY, offset, (last - first) * RECORD_SIZE).asIntBuffer();
+            int[] records = new int[ints.remaining()];
+            ints.get(records);
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package graphs;
+
+import java.awt.geom.Point2D;
+import java.util.*;
+
+//евклидово расстояние между координатами вершин, умноженное на scale.
+//оценка допустима, если scale не больше отношения вес/длина ни для одного ребра
+class EuclideanHeuristic<V> implements AStarHeuristic<V> {
+    private final Map<V, ? extends Point2D> positions;
+    private final double scale;
+
+    EuclideanHeuristic(Map<V, ? extends Point2D> positions, double scale) {
+        this.positions = positions;
+        this.scale = scale;
+    }
+
+    //подбирает наибольший scale, при котором оценка остается допустимой для всех ребер графа
+    public static <V> EuclideanHeuristic<V> forGraph(CsrGraph<V> graph, Map<V, ? extends Point2D> positions) {
+        double scale = Double.POSITIVE_INFINITY;
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            Point2D from = positions.get(graph.vertexAt(u));
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                Point2D to = positions.get(graph.vertexAt(graph.targets[e]));
+                if (from == null || to == null) {
+                    return new EuclideanHeuristic<>(positions, 0);
+                }
+                double length = from.distance(to);
+                if (length > 0) {
+                    scale = Math.min(scale, graph.weights[e] / length);
+                }
+            }
+        }
+        return new EuclideanHeuristic<>(positions, Double.isInfinite(scale) ? 0 : scale);
+    }
+
+    @Override
+    public long estimate(V vertex, V target) {
+        Point2D from = positions.get(vertex);
+        Point2D to = positions.get(target);
+        if (from == null || to == null) {
+            return 0;
+        }
+        return (long) (from.distance(to) * scale);
+    }
+}
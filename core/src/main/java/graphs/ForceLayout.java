@@ -0,0 +1,346 @@
+package graphs;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+//силовая укладка (Фрухтерман-Рейнгольд) с приближением Барнса-Хата для отталкивания: O(n log n) на итерацию.
+//итерации идут в фоновом потоке, промежуточные кадры публикуются по ходу работы, а onFrame сообщает о новом кадре.
+//при изменении графа укладка стартует с прошлых координат, так что вершины не прыгают
+class ForceLayout<V> {
+    private static final int MAX_ITERATIONS = 500;
+    private static final long PUBLISH_INTERVAL_NANOS = 50_000_000L;
+    private static final double THETA = 0.9;
+    private static final double GRAVITY = 0.02;
+
+    private final Runnable onFrame;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "force-layout");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Frame<V> frame;
+
+    //координаты вершин снимка graph, индексы совпадают с id вершин
+    static final class Frame<V> {
+        final CsrGraph<V> graph;
+        final double[] x;
+        final double[] y;
+        final boolean finished;
+
+        Frame(CsrGraph<V> graph, double[] x, double[] y, boolean finished) {
+            this.graph = graph;
+            this.x = x;
+            this.y = y;
+            this.finished = finished;
+        }
+    }
+
+    ForceLayout(Runnable onFrame) {
+        this.onFrame = onFrame;
+    }
+
+    public Frame<V> frame() {
+        return frame;
+    }
+
+    //запускает укладку нового снимка; незаконченная укладка предыдущего снимка прекращается
+    public void setGraph(CsrGraph<V> graph) {
+        long id = generation.incrementAndGet();
+        Frame<V> previous = frame;
+        worker.execute(() -> run(id, graph, previous));
+    }
+
+    private void run(long id, CsrGraph<V> graph, Frame<V> previous) {
+        int n = graph.vertexCount();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        int reused = place(graph, previous, x, y);
+        //копии: x и y дальше меняются в цикле, а кадр читают EDT и следующий запуск place
+        publish(id, graph, x.clone(), y.clone(), n == 0);
+        if (n == 0) {
+            return;
+        }
+
+        double k = 1.0;
+        //если почти все вершины уже стояли на местах, начинаем с низкой температуры, чтобы не разрушать картинку
+        double temperature = Math.sqrt(n) * k * (reused * 10 >= n * 9 ? 0.05 : 0.5);
+        double minTemperature = 0.005 * k;
+        double[] dx = new double[n];
+        double[] dy = new double[n];
+        QuadTree tree = new QuadTree(n);
+        long lastPublish = System.nanoTime();
+
+        for (int iteration = 0; iteration < MAX_ITERATIONS && temperature > minTemperature; iteration++) {
+            if (generation.get() != id) {
+                return;
+            }
+            tree.build(x, y);
+            for (int i = 0; i < n; i++) {
+                tree.repulsion(i, x[i], y[i], k * k, THETA * THETA);
+                dx[i] = tree.forceX - GRAVITY * x[i];
+                dy[i] = tree.forceY - GRAVITY * y[i];
+            }
+            for (int u = 0; u < n; u++) {
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int v = graph.targets[e];
+                    double ex = x[u] - x[v];
+                    double ey = y[u] - y[v];
+                    double distance = Math.sqrt(ex * ex + ey * ey);
+                    double force = distance / k;
+                    dx[u] -= ex * force;
+                    dy[u] -= ey * force;
+                    dx[v] += ex * force;
+                    dy[v] += ey * force;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                double length = Math.sqrt(dx[i] * dx[i] + dy[i] * dy[i]);
+                if (length > 0) {
+                    double step = Math.min(length, temperature) / length;
+                    x[i] += dx[i] * step;
+                    y[i] += dy[i] * step;
+                }
+            }
+            temperature *= 0.97;
+
+            long now = System.nanoTime();
+            if (now - lastPublish >= PUBLISH_INTERVAL_NANOS) {
+                publish(id, graph, x.clone(), y.clone(), false);
+                lastPublish = now;
+            }
+        }
+        publish(id, graph, x, y, true);
+    }
+
+    //вершины, которые уже были в прошлом кадре, остаются на своих местах; новые ставятся рядом с соседом,
+    //а если соседей с координатами нет - в точку, зависящую только от самой вершины.
+    //возвращает число вершин, взятых из прошлого кадра
+    private int place(CsrGraph<V> graph, Frame<V> previous, double[] x, double[] y) {
+        int n = graph.vertexCount();
+        boolean[] placed = new boolean[n];
+        int reused = 0;
+        if (previous != null) {
+            for (int i = 0; i < n; i++) {
+                int old = previous.graph.indexOf(graph.vertexAt(i));
+                if (old >= 0) {
+                    x[i] = previous.x[old];
+                    y[i] = previous.y[old];
+                    placed[i] = true;
+                    reused++;
+                }
+            }
+        }
+        double spread = Math.sqrt(n) + 1;
+        CsrGraph<V> reverse = graph.reverse();
+        for (int i = 0; i < n; i++) {
+            if (placed[i]) {
+                continue;
+            }
+            Random random = new Random(graph.vertexAt(i).hashCode());
+            int anchor = placedNeighbour(graph, i, placed);
+            if (anchor < 0) {
+                anchor = placedNeighbour(reverse, i, placed);
+            }
+            if (anchor >= 0) {
+                x[i] = x[anchor] + random.nextDouble() - 0.5;
+                y[i] = y[anchor] + random.nextDouble() - 0.5;
+            } else {
+                x[i] = (random.nextDouble() - 0.5) * spread;
+                y[i] = (random.nextDouble() - 0.5) * spread;
+            }
+            placed[i] = true;
+        }
+        return reused;
+    }
+
+    private static int placedNeighbour(CsrGraph<?> graph, int v, boolean[] placed) {
+        for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+            if (placed[graph.targets[e]]) {
+                return graph.targets[e];
+            }
+        }
+        return -1;
+    }
+
+    private void publish(long id, CsrGraph<V> graph, double[] x, double[] y, boolean finished) {
+        if (generation.get() != id) {
+            return;
+        }
+        frame = new Frame<>(graph, x, y, finished);
+        onFrame.run();
+    }
+
+    //квадродерево на массивах: узел хранит суммарную "массу" и центр масс своих точек,
+    //поэтому далекие группы вершин отталкивают как одна точка
+    private static final class QuadTree {
+        private static final int MAX_DEPTH = 40;
+
+        private int[] children;
+        private int[] point;
+        private double[] centerX;
+        private double[] centerY;
+        private double[] half;
+        private double[] mass;
+        private double[] massX;
+        private double[] massY;
+        private int size;
+        private final int[] stack = new int[4 * MAX_DEPTH + 8];
+
+        double forceX;
+        double forceY;
+
+        QuadTree(int points) {
+            allocate(Math.max(16, 2 * points));
+        }
+
+        private void allocate(int capacity) {
+            children = new int[4 * capacity];
+            point = new int[capacity];
+            centerX = new double[capacity];
+            centerY = new double[capacity];
+            half = new double[capacity];
+            mass = new double[capacity];
+            massX = new double[capacity];
+            massY = new double[capacity];
+        }
+
+        private void grow() {
+            int capacity = point.length * 2;
+            children = Arrays.copyOf(children, 4 * capacity);
+            point = Arrays.copyOf(point, capacity);
+            centerX = Arrays.copyOf(centerX, capacity);
+            centerY = Arrays.copyOf(centerY, capacity);
+            half = Arrays.copyOf(half, capacity);
+            mass = Arrays.copyOf(mass, capacity);
+            massX = Arrays.copyOf(massX, capacity);
+            massY = Arrays.copyOf(massY, capacity);
+        }
+
+        private int newNode(double cx, double cy, double h) {
+            if (size == point.length) {
+                grow();
+            }
+            int node = size++;
+            Arrays.fill(children, 4 * node, 4 * node + 4, -1);
+            point[node] = -1;
+            centerX[node] = cx;
+            centerY[node] = cy;
+            half[node] = h;
+            mass[node] = 0;
+            massX[node] = 0;
+            massY[node] = 0;
+            return node;
+        }
+
+        void build(double[] x, double[] y) {
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < x.length; i++) {
+                minX = Math.min(minX, x[i]);
+                maxX = Math.max(maxX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+            size = 0;
+            double h = Math.max(maxX - minX, maxY - minY) / 2 + 1e-9;
+            newNode((minX + maxX) / 2, (minY + maxY) / 2, h);
+            for (int i = 0; i < x.length; i++) {
+                insert(i, x[i], y[i]);
+            }
+            for (int node = 0; node < size; node++) {
+                if (mass[node] > 0) {
+                    massX[node] /= mass[node];
+                    massY[node] /= mass[node];
+                }
+            }
+        }
+
+        private void insert(int p, double px, double py) {
+            int node = 0;
+            for (int depth = 0; ; depth++) {
+                mass[node] += 1;
+                massX[node] += px;
+                massY[node] += py;
+                boolean leaf = children[4 * node] == -1 && children[4 * node + 1] == -1
+                    && children[4 * node + 2] == -1 && children[4 * node + 3] == -1;
+                if (leaf && mass[node] == 1) {
+                    point[node] = p;
+                    return;
+                }
+                //совпадающие точки на предельной глубине просто копятся в одном листе
+                if (depth >= MAX_DEPTH) {
+                    point[node] = -1;
+                    return;
+                }
+                if (leaf && point[node] >= 0) {
+                    int existing = point[node];
+                    point[node] = -1;
+                    double ex = (massX[node] - px) / (mass[node] - 1);
+                    double ey = (massY[node] - py) / (mass[node] - 1);
+                    int child = childFor(node, ex, ey);
+                    mass[child] += 1;
+                    massX[child] += ex;
+                    massY[child] += ey;
+                    point[child] = existing;
+                }
+                node = childFor(node, px, py);
+            }
+        }
+
+        private int childFor(int node, double px, double py) {
+            int quadrant = (px >= centerX[node] ? 1 : 0) + (py >= centerY[node] ? 2 : 0);
+            int slot = 4 * node + quadrant;
+            if (children[slot] == -1) {
+                double h = half[node] / 2;
+                double cx = centerX[node] + ((quadrant & 1) != 0 ? h : -h);
+                double cy = centerY[node] + ((quadrant & 2) != 0 ? h : -h);
+                int child = newNode(cx, cy, h);
+                children[slot] = child;
+            }
+            return children[slot];
+        }
+
+        //сила отталкивания k^2/d от всех точек, кроме самой p, в forceX/forceY
+        void repulsion(int p, double px, double py, double k2, double theta2) {
+            forceX = 0;
+            forceY = 0;
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int node = stack[--top];
+                if (mass[node] == 0 || point[node] == p) {
+                    continue;
+                }
+                double dx = px - massX[node];
+                double dy = py - massY[node];
+                double d2 = dx * dx + dy * dy;
+                boolean leaf = children[4 * node] == -1 && children[4 * node + 1] == -1
+                    && children[4 * node + 2] == -1 && children[4 * node + 3] == -1;
+                double width = 2 * half[node];
+                if (leaf || width * width < theta2 * d2) {
+                    if (d2 < 1e-12) {
+                        //совпадающие точки расталкиваем в направлении, зависящем от номера точки
+                        dx = ((p * 31) % 7 - 3) * 1e-3;
+                        dy = ((p * 17) % 5 - 2) * 1e-3 + 1e-4;
+                        d2 = dx * dx + dy * dy;
+                    }
+                    double force = k2 * mass[node] / d2;
+                    forceX += dx * force;
+                    forceY += dy * force;
+                    continue;
+                }
+                for (int c = 0; c < 4; c++) {
+                    int child = children[4 * node + c];
+                    if (child != -1) {
+                        stack[top++] = child;
+                    }
+                }
+            }
+        }
+    }
+}
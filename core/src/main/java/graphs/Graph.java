@@ -0,0 +1,604 @@
+package graphs;
+
+import java.util.*;
+
+//граф с метками вершин произвольного типа. метки переводятся в плотные id через VertexDictionary
+//один раз на входе, а сами ребра хранятся в IntGraph на массивах int
+class Graph<V> {
+    private final VertexDictionary<V> dictionary = new VertexDictionary<>();
+    private final IntGraph structure;
+    private final boolean isDirected;
+    private CsrGraph<V> snapshot;
+    //номер вершины в снимке по ее id в словаре
+    private int[] snapshotIndex;
+    private long version;
+    private TraversalEngine<V> traversal;
+    private ShortestPathEngine<V> shortestPathEngine;
+    private PointToPointEngine<V> pointToPointEngine;
+    private MultiSourceShortestPaths<V> multiSource;
+    //delta-stepping для текущего снимка; autoDelta выбирает ширину корзины по выборке весов, это и кешируем
+    private DeltaStepping<V> deltaStepping;
+    private boolean autoDelta;
+    private final java.util.List<GraphListener<V>> listeners = new ArrayList<>();
+    //компоненты связности (для ориентированного графа - слабой) по id словаря: добавление ребер
+    //поддерживается на месте, а после удаления структура строится заново при следующем запросе
+    private UnionFind components;
+    private StronglyConnectedComponents<V> stronglyConnected;
+    private GraphMetrics metrics;
+    
+    public Graph(boolean isDirected) {
+        this.structure = new IntGraph(isDirected);
+        this.isDirected = isDirected;
+    }
+    
+    public Graph() {
+        this(false);
+    }
+    
+    public void addVertex(V v) {
+        if (v == null) {
+            throw new IllegalArgumentException("Вершина не может быть null");
+        }
+        if (dictionary.id(v) < 0) {
+            long started = started();
+            modified();
+            structure.addVertex(dictionary.intern(v));
+            for (GraphListener<V> listener : listeners) {
+                listener.vertexAdded(v);
+            }
+            finished(GraphMetrics.Operation.ADD_VERTEX, started, null);
+        }
+    }
+    
+    public void addEdge(V from, V to, int weight) {
+        int u = dictionary.id(from);
+        int v = dictionary.id(to);
+        if (u < 0 || v < 0) {
+            throw new IllegalArgumentException("Обе вершины должны существовать в графе");
+        }
+        long started = started();
+        modified();
+        
+        int oldWeight = listeners.isEmpty() ? -1 : structure.getEdgeWeight(u, v);
+        structure.addEdge(u, v, weight);
+        joined(u, v);
+        for (GraphListener<V> listener : listeners) {
+            listener.edgeAdded(from, to, weight, oldWeight);
+        }
+        finished(GraphMetrics.Operation.ADD_EDGE, started, null);
+    }
+    
+    public void addEdge(V from, V to) {
+        addEdge(from, to, 1);
+    }
+    
+    //пакетное добавление ребер для загрузчиков: недостающие вершины создаются автоматически,
+    //проверки и сброс снимка выполняются один раз на весь пакет, а не на каждое ребро
+    public void addEdges(java.util.List<V> from, java.util.List<V> to, int[] weights) {
+        if (from.size() != to.size() || from.size() != weights.length) {
+            throw new IllegalArgumentException("Размеры списков ребер не совпадают");
+        }
+        long started = started();
+        modified();
+        
+        for (int i = 0; i < weights.length; i++) {
+            int u = vertexId(from.get(i));
+            int v = vertexId(to.get(i));
+            if (listeners.isEmpty()) {
+                structure.addEdge(u, v, weights[i]);
+                joined(u, v);
+                continue;
+            }
+            int oldWeight = structure.getEdgeWeight(u, v);
+            structure.addEdge(u, v, weights[i]);
+            joined(u, v);
+            for (GraphListener<V> listener : listeners) {
+                listener.edgeAdded(from.get(i), to.get(i), weights[i], oldWeight);
+            }
+        }
+        finished(GraphMetrics.Operation.ADD_EDGES, started, null);
+    }
+    
+    private int vertexId(V v) {
+        if (v == null) {
+            throw new IllegalArgumentException("Вершина не может быть null");
+        }
+        int id = dictionary.intern(v);
+        if (structure.addVertex(id)) {
+            for (GraphListener<V> listener : listeners) {
+                listener.vertexAdded(v);
+            }
+        }
+        return id;
+    }
+    
+    public void removeVertex(V v) {
+        int id = requireId(v);
+        long started = started();
+        modified();
+        
+        if (listeners.isEmpty()) {
+            structure.removeVertex(id);
+            dictionary.remove(v);
+            components = null;
+            finished(GraphMetrics.Operation.REMOVE_VERTEX, started, null);
+            return;
+        }
+        //ребра вершины запоминаем до удаления, чтобы сообщить о каждом
+        java.util.List<V> from = new ArrayList<>();
+        java.util.List<V> to = new ArrayList<>();
+        java.util.List<Integer> weights = new ArrayList<>();
+        for (int i = 0; i < structure.outDegree(id); i++) {
+            from.add(v);
+            to.add(dictionary.label(structure.target(id, i)));
+            weights.add(structure.weight(id, i));
+        }
+        if (isDirected) {
+            for (int i = 0; i < structure.inDegree(id); i++) {
+                int u = structure.predecessor(id, i);
+                if (u != id) {
+                    from.add(dictionary.label(u));
+                    to.add(v);
+                    weights.add(structure.getEdgeWeight(u, id));
+                }
+            }
+        }
+        structure.removeVertex(id);
+        components = null;
+        //метка остается в словаре до конца рассылки, чтобы подписчики могли найти ее id
+        for (GraphListener<V> listener : listeners) {
+            for (int i = 0; i < from.size(); i++) {
+                listener.edgeRemoved(from.get(i), to.get(i), weights.get(i));
+            }
+            listener.vertexRemoved(v);
+        }
+        dictionary.remove(v);
+        finished(GraphMetrics.Operation.REMOVE_VERTEX, started, null);
+    }
+    
+    public void removeEdge(V from, V to) {
+        int u = dictionary.id(from);
+        int v = dictionary.id(to);
+        if (u < 0 || v < 0) {
+            throw new IllegalArgumentException("Обе вершины должны существовать в графе");
+        }
+        long started = started();
+        modified();
+        
+        int weight = structure.getEdgeWeight(u, v);
+        if (structure.removeEdge(u, v)) {
+            components = null;
+            for (GraphListener<V> listener : listeners) {
+                listener.edgeRemoved(from, to, weight);
+            }
+        }
+        finished(GraphMetrics.Operation.REMOVE_EDGE, started, null);
+    }
+    
+    public java.util.List<V> getAdjacent(V v) {
+        int id = requireId(v);
+        int degree = structure.outDegree(id);
+        java.util.List<V> adjacent = new ArrayList<>(degree);
+        for (int i = 0; i < degree; i++) {
+            adjacent.add(dictionary.label(structure.target(id, i)));
+        }
+        return adjacent;
+    }
+    
+    public java.util.List<V> getPredecessors(V v) {
+        int id = requireId(v);
+        int degree = structure.inDegree(id);
+        java.util.List<V> predecessors = new ArrayList<>(degree);
+        for (int i = 0; i < degree; i++) {
+            predecessors.add(dictionary.label(structure.predecessor(id, i)));
+        }
+        return predecessors;
+    }
+    
+    public int inDegree(V v) {
+        return structure.inDegree(requireId(v));
+    }
+    
+    public int outDegree(V v) {
+        return structure.outDegree(requireId(v));
+    }
+    
+    //лежат ли a и b в одной компоненте связности; для ориентированного графа ребра считаются
+    //ненаправленными, так что false означает, что пути нет ни в одну сторону
+    public boolean connected(V a, V b) {
+        int u = dictionary.id(a);
+        int v = dictionary.id(b);
+        if (u < 0 || v < 0) {
+            throw new IllegalArgumentException("Вершины должны существовать в графе");
+        }
+        return components().connected(u, v);
+    }
+    
+    public int componentCount() {
+        //свободные id словаря лежат в отдельных множествах и компонентами не считаются
+        return components().sets() - (components.capacity() - structure.vertexCount());
+    }
+    
+    //взаимная достижимость в ориентированном графе, по компонентам сильной связности снимка
+    public boolean stronglyConnected(V a, V b) {
+        String message = "Вершины должны существовать в графе";
+        int u = snapshotId(a, message);
+        int v = snapshotId(b, message);
+        StronglyConnectedComponents<V> scc = stronglyConnectedComponents();
+        return scc.component(u) == scc.component(v);
+    }
+    
+    public StronglyConnectedComponents<V> stronglyConnectedComponents() {
+        CsrGraph<V> current = freeze();
+        if (stronglyConnected == null || stronglyConnected.graph() != current) {
+            stronglyConnected = new StronglyConnectedComponents<>(current);
+        }
+        return stronglyConnected;
+    }
+    
+    private UnionFind components() {
+        if (components == null) {
+            components = new UnionFind(structure.capacity());
+            for (int u = 0; u < structure.capacity(); u++) {
+                if (!structure.containsVertex(u)) {
+                    continue;
+                }
+                for (int i = 0; i < structure.outDegree(u); i++) {
+                    components.union(u, structure.target(u, i));
+                }
+            }
+        }
+        components.ensureCapacity(structure.capacity());
+        return components;
+    }
+    
+    private void joined(int u, int v) {
+        if (components != null) {
+            components.ensureCapacity(structure.capacity());
+            components.union(u, v);
+        }
+    }
+    
+    //для классов пакета, которые работают прямо с id: ребра в IntGraph, метки в словаре
+    IntGraph structure() {
+        return structure;
+    }
+    
+    VertexDictionary<V> dictionary() {
+        return dictionary;
+    }
+    
+    public void addListener(GraphListener<V> listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(GraphListener<V> listener) {
+        listeners.remove(listener);
+    }
+    
+    //метрики операций; null отключает их
+    public void setMetrics(GraphMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    public GraphMetrics metrics() {
+        return metrics;
+    }
+    
+    //без подключенных метрик время не измеряется
+    private long started() {
+        return metrics == null ? 0 : System.nanoTime();
+    }
+    
+    private void finished(GraphMetrics.Operation operation, long started, SearchStats stats) {
+        if (metrics != null) {
+            metrics.record(operation, System.nanoTime() - started, stats);
+        }
+    }
+    
+    private int requireId(V v) {
+        int id = dictionary.id(v);
+        if (id < 0) {
+            throw new IllegalArgumentException("Вершина не существует в графе");
+        }
+        return id;
+    }
+    
+    public java.util.List<V> dfs(V start) {
+        long started = started();
+        int s = startId(start);
+        TraversalEngine<V> engine = traversal();
+        java.util.List<V> order = freeze().toVertices(engine.dfsOrder(s));
+        finished(GraphMetrics.Operation.DFS, started, engine.stats());
+        return order;
+    }
+
+    public void dfs(V start, TraversalVisitor<V> visitor) {
+        long started = started();
+        int s = startId(start);
+        TraversalEngine<V> engine = traversal();
+        engine.dfs(s, visitor);
+        finished(GraphMetrics.Operation.DFS, started, engine.stats());
+    }
+
+    public java.util.List<V> bfs(V start) {
+        long started = started();
+        int s = startId(start);
+        TraversalEngine<V> engine = traversal();
+        java.util.List<V> order = freeze().toVertices(engine.bfsOrder(s));
+        finished(GraphMetrics.Operation.BFS, started, engine.stats());
+        return order;
+    }
+
+    public void bfs(V start, TraversalVisitor<V> visitor) {
+        long started = started();
+        int s = startId(start);
+        TraversalEngine<V> engine = traversal();
+        engine.bfs(s, visitor);
+        finished(GraphMetrics.Operation.BFS, started, engine.stats());
+    }
+
+    //ленивые обходы по текущему снимку: граф просматривается, только пока потребитель берет вершины,
+    //так что limit(k) или поиск первой подходящей вершины не проходят всю компоненту.
+    //порядок тот же, что у dfs/bfs; изменения графа после вызова на уже начатый обход не влияют
+    public Iterator<V> bfsIterator(V start) {
+        int s = startId(start);
+        return TraversalIterator.bfs(freeze(), s);
+    }
+
+    public Iterator<V> dfsIterator(V start) {
+        int s = startId(start);
+        return TraversalIterator.dfs(freeze(), s);
+    }
+
+    public java.util.stream.Stream<V> bfsStream(V start) {
+        return traversalStream(bfsIterator(start));
+    }
+
+    public java.util.stream.Stream<V> dfsStream(V start) {
+        return traversalStream(dfsIterator(start));
+    }
+
+    private static <V> java.util.stream.Stream<V> traversalStream(Iterator<V> iterator) {
+        int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+        return java.util.stream.StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false);
+    }
+
+    //все вершины и все ребра текущего снимка; для массовой обработки достаточно вызвать parallel()
+    public java.util.stream.Stream<V> vertexStream() {
+        return java.util.stream.StreamSupport.stream(freeze().vertexSpliterator(), false);
+    }
+
+    public java.util.stream.Stream<Edge<V>> edgeStream() {
+        return java.util.stream.StreamSupport.stream(freeze().edgeSpliterator(), false);
+    }
+
+    //глубина и родитель каждой вершины; уровни обрабатываются параллельно на общем ForkJoinPool
+    public BfsTree<V> parallelBfs(V start) {
+        int s = startId(start);
+        return new ParallelBfs<>(freeze()).run(s);
+    }
+
+    private int startId(V start) {
+        return snapshotId(start, "Начальная вершина не существует в графе");
+    }
+
+    //номер вершины в текущем снимке, без словаря меток самого снимка
+    int snapshotId(V v, String message) {
+        int id = dictionary.id(v);
+        if (id < 0) {
+            throw new IllegalArgumentException(message);
+        }
+        freeze();
+        return snapshotIndex[id];
+    }
+
+    //движок обхода живет, пока граф не изменится, и переиспользует свои буферы
+    private TraversalEngine<V> traversal() {
+        CsrGraph<V> current = freeze();
+        if (traversal == null || traversal.graph() != current) {
+            traversal = new TraversalEngine<>(current);
+        }
+        return traversal;
+    }
+    
+    public int getEdgeWeight(V from, V to) {
+        int u = dictionary.id(from);
+        int v = dictionary.id(to);
+        if (u < 0 || v < 0) {
+            return -1;
+        }
+        return structure.getEdgeWeight(u, v);
+    }
+    
+    public java.util.List<V> dijkstra(V start, V end) {
+        long started = started();
+        String message = "Вершины должны существовать в графе";
+        //вершины из разных компонент: пути нет, и поиск по всей компоненте start не нужен
+        if (!connected(start, end)) {
+            finished(GraphMetrics.Operation.DIJKSTRA, started, null);
+            return new ArrayList<>();
+        }
+        int s = snapshotId(start, message);
+        int t = snapshotId(end, message);
+        ShortestPathEngine<V> engine = shortestPathEngine();
+        java.util.List<V> path = engine.path(s, t);
+        finished(GraphMetrics.Operation.DIJKSTRA, started, engine.stats());
+        return path;
+    }
+
+    //дерево кратчайших путей от start до всех вершин за один проход
+    public ShortestPathTree<V> shortestPaths(V start) {
+        long started = started();
+        int s = startId(start);
+        ShortestPathEngine<V> engine = shortestPathEngine();
+        ShortestPathTree<V> tree = engine.tree(s);
+        finished(GraphMetrics.Operation.SHORTEST_PATHS, started, engine.stats());
+        return tree;
+    }
+
+    //то же дерево, что shortestPaths(start), но параллельным delta-stepping; выигрывает на больших графах,
+    //где фронт поиска широкий. delta подбирается по весам ребер
+    public ShortestPathTree<V> parallelShortestPaths(V start) {
+        return parallelShortestPaths(start, deltaStepping(0, true));
+    }
+
+    public ShortestPathTree<V> parallelShortestPaths(V start, long delta) {
+        return parallelShortestPaths(start, deltaStepping(delta, false));
+    }
+
+    private ShortestPathTree<V> parallelShortestPaths(V start, DeltaStepping<V> engine) {
+        long started = started();
+        int s = startId(start);
+        ShortestPathTree<V> tree = engine.run(s);
+        finished(GraphMetrics.Operation.PARALLEL_SHORTEST_PATHS, started, engine.stats());
+        return tree;
+    }
+
+    public ShortestPathTree<V> shortestPaths(V start, Collection<V> targets) {
+        long started = started();
+        int s = startId(start);
+        int[] ids = new int[targets.size()];
+        int i = 0;
+        for (V target : targets) {
+            ids[i++] = snapshotId(target, "Вершины должны существовать в графе");
+        }
+        ShortestPathEngine<V> engine = shortestPathEngine();
+        ShortestPathTree<V> tree = engine.tree(s, ids);
+        finished(GraphMetrics.Operation.SHORTEST_PATHS, started, engine.stats());
+        return tree;
+    }
+
+    //встречный поиск от start и от end; для ориентированного графа обратный поиск идет по обращенным ребрам
+    public java.util.List<V> dijkstraBidirectional(V start, V end) {
+        long started = started();
+        String message = "Вершины должны существовать в графе";
+        if (!connected(start, end)) {
+            finished(GraphMetrics.Operation.BIDIRECTIONAL, started, null);
+            return new ArrayList<>();
+        }
+        int s = snapshotId(start, message);
+        int t = snapshotId(end, message);
+        PointToPointEngine<V> engine = pointToPointEngine();
+        java.util.List<V> path = engine.bidirectional(s, t);
+        finished(GraphMetrics.Operation.BIDIRECTIONAL, started, engine.stats());
+        return path;
+    }
+
+    public java.util.List<V> aStar(V start, V end, AStarHeuristic<V> heuristic) {
+        long started = started();
+        String message = "Вершины должны существовать в графе";
+        if (!connected(start, end)) {
+            finished(GraphMetrics.Operation.A_STAR, started, null);
+            return new ArrayList<>();
+        }
+        int s = snapshotId(start, message);
+        int t = snapshotId(end, message);
+        PointToPointEngine<V> engine = pointToPointEngine();
+        java.util.List<V> path = engine.aStar(s, t, heuristic);
+        finished(GraphMetrics.Operation.A_STAR, started, engine.stats());
+        return path;
+    }
+
+    //расстояния от каждого источника до всех вершин; поиски от разных источников идут параллельно
+    public DistanceMatrix<V> distanceMatrix(Collection<V> sources) {
+        return multiSource().matrix(sourceIds(sources));
+    }
+
+    public DistanceMatrix<V> distanceMatrix() {
+        return multiSource().allPairs();
+    }
+
+    //для графов, где вся матрица не помещается в память: строки по одной отдаются в sink,
+    //id источника и столбцы строки - номера вершин снимка freeze()
+    public void distancesFrom(Collection<V> sources, MultiSourceShortestPaths.RowSink sink) {
+        multiSource().stream(sourceIds(sources), sink);
+    }
+
+    //запас движков для параллельных поисков живет, пока граф не изменится
+    private MultiSourceShortestPaths<V> multiSource() {
+        CsrGraph<V> current = freeze();
+        if (multiSource == null || multiSource.graph() != current) {
+            multiSource = new MultiSourceShortestPaths<>(current);
+        }
+        return multiSource;
+    }
+
+    private int[] sourceIds(Collection<V> sources) {
+        int[] ids = new int[sources.size()];
+        int i = 0;
+        for (V source : sources) {
+            ids[i++] = snapshotId(source, "Начальная вершина не существует в графе");
+        }
+        return ids;
+    }
+
+    private PointToPointEngine<V> pointToPointEngine() {
+        CsrGraph<V> current = freeze();
+        if (pointToPointEngine == null || pointToPointEngine.graph() != current) {
+            pointToPointEngine = new PointToPointEngine<>(current);
+        }
+        return pointToPointEngine;
+    }
+
+    private ShortestPathEngine<V> shortestPathEngine() {
+        CsrGraph<V> current = freeze();
+        if (shortestPathEngine == null || shortestPathEngine.graph() != current) {
+            shortestPathEngine = new ShortestPathEngine<>(current);
+        }
+        return shortestPathEngine;
+    }
+    
+    private DeltaStepping<V> deltaStepping(long delta, boolean auto) {
+        CsrGraph<V> current = freeze();
+        if (deltaStepping == null || deltaStepping.graph() != current
+                || autoDelta != auto || !auto && deltaStepping.delta() != delta) {
+            deltaStepping = auto ? new DeltaStepping<>(current) : new DeltaStepping<>(current, delta);
+            autoDelta = auto;
+        }
+        return deltaStepping;
+    }
+    
+    public Set<V> getVertices() {
+        Set<V> vertices = new HashSet<>(dictionary.size() * 4 / 3 + 1);
+        for (int id = 0; id < dictionary.capacity(); id++) {
+            V label = dictionary.label(id);
+            if (label != null) {
+                vertices.add(label);
+            }
+        }
+        return vertices;
+    }
+    
+    public boolean containsVertex(V v) {
+        return dictionary.id(v) >= 0;
+    }
+    
+    public boolean isDirected() {
+        return isDirected;
+    }
+    
+    //растет при каждом изменении графа; по нему кеши понимают, что их данные устарели
+    public long version() {
+        return version;
+    }
+    
+    private void modified() {
+        snapshot = null;
+        version++;
+    }
+
+    //снимок для алгоритмов, которые только читают граф; дальнейшие изменения графа на него не влияют.
+    //снимок кешируется до первого изменения графа
+    public CsrGraph<V> freeze() {
+        if (snapshot == null) {
+            long started = started();
+            if (snapshotIndex == null || snapshotIndex.length < structure.capacity()) {
+                snapshotIndex = new int[structure.capacity()];
+            }
+            snapshot = structure.toCsr(dictionary::label, snapshotIndex);
+            finished(GraphMetrics.Operation.FREEZE, started, null);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,313 @@
+package graphs;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+//пакетный режим без GUI: загружает граф и выполняет поток запросов из файла или stdin, по запросу на строку:
+//  path A B | bfs A | dfs A | adjacent A                 - запросы на чтение
+//  addVertex A | addEdge A B [w] | removeVertex A | removeEdge A B - изменения (addEdge, как Graph.addEdge,
+//  требует, чтобы обе вершины уже были в графе)
+//пустые строки и строки с # пропускаются. на каждый запрос печатается ровно одна строка ответа в порядке запросов:
+//вершины через пробел (пустая строка, если пути нет), "ok" для изменений или "ошибка: ..." - так ответы легко
+//сопоставить с запросами построчно.
+//запросы на чтение выполняются пулом потоков по неизменяемому снимку графа; изменения применяет поток чтения,
+//а следующий запрос на чтение получает новый снимок, так что результат тот же, что при последовательном выполнении.
+//запуск: java -cp graphs-core.jar graphs.GraphBatch [--directed] [--threads N] [--edges файл | --snapshot файл]
+//        [--out файл] [файл запросов | -]
+class GraphBatch {
+    private static final int QUEUE_PER_THREAD = 1024;
+
+    private final Graph<String> graph;
+    private final ExecutorService workers;
+    //ответы в порядке запросов; ограниченная очередь не дает чтению уйти далеко вперед записи
+    private final BlockingQueue<Future<String>> results;
+    //движки на поток; пересоздаются, когда приходит новый снимок
+    private final ThreadLocal<Engines> engines = new ThreadLocal<>();
+
+    private static final class Engines {
+        final CsrGraph<String> graph;
+        final TraversalEngine<String> traversal;
+        final ShortestPathEngine<String> shortestPaths;
+
+        Engines(CsrGraph<String> graph) {
+            this.graph = graph;
+            this.traversal = new TraversalEngine<>(graph);
+            this.shortestPaths = new ShortestPathEngine<>(graph);
+        }
+    }
+
+    GraphBatch(Graph<String> graph, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Число потоков должно быть положительным");
+        }
+        this.graph = graph;
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "graph-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.results = new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD);
+    }
+
+    //выполняет все запросы из input и пишет ответы в output; возвращает число запросов
+    public long run(BufferedReader input, Writer output) throws IOException {
+        Future<String> end = CompletableFuture.completedFuture(null);
+        IOException[] writeFailure = new IOException[1];
+        Thread writer = new Thread(() -> {
+            BufferedWriter out = new BufferedWriter(output, 1 << 16);
+            try {
+                for (Future<String> next = results.take(); next != end; next = results.take()) {
+                    //после ошибки записи очередь все равно разбирается, иначе поток чтения встанет на put
+                    if (writeFailure[0] == null) {
+                        try {
+                            out.write(answer(next));
+                            out.write('\n');
+                        } catch (IOException e) {
+                            writeFailure[0] = e;
+                        }
+                    }
+                }
+                out.close();
+            } catch (IOException e) {
+                writeFailure[0] = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "graph-batch-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        long count = 0;
+        boolean finished = false;
+        try {
+            String line;
+            while ((line = input.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                results.put(submit(line.split("\\s+")));
+                count++;
+            }
+            results.put(end);
+            writer.join();
+            finished = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Выполнение запросов прервано");
+        } finally {
+            if (!finished) {
+                //чтение оборвалось (ошибка input или прерывание): маркер конца писатель уже не получит
+                stop(writer);
+            }
+        }
+        if (writeFailure[0] != null) {
+            throw writeFailure[0];
+        }
+        return count;
+    }
+
+    //прерывает поток записи и дожидается его; флаг прерывания текущего потока сохраняется
+    private static void stop(Thread writer) {
+        boolean interrupted = Thread.interrupted();
+        writer.interrupt();
+        while (true) {
+            try {
+                writer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private static String answer(Future<String> result) throws InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            return "ошибка: " + (cause.getMessage() != null ? cause.getMessage() : cause.toString());
+        }
+    }
+
+    private Future<String> submit(String[] query) {
+        String command = query[0];
+        try {
+            switch (command) {
+                case "path":
+                    return read(query, 3, (e, ids) -> join(e.shortestPaths.path(ids[0], ids[1])));
+                case "bfs":
+                    return read(query, 2, (e, ids) -> join(e.graph.toVertices(e.traversal.bfsOrder(ids[0]))));
+                case "dfs":
+                    return read(query, 2, (e, ids) -> join(e.graph.toVertices(e.traversal.dfsOrder(ids[0]))));
+                case "adjacent":
+                    return read(query, 2, (e, ids) -> adjacent(e.graph, ids[0]));
+                case "addVertex":
+                    arguments(query, 2);
+                    graph.addVertex(query[1]);
+                    break;
+                case "addEdge":
+                    if (query.length != 3 && query.length != 4) {
+                        throw new IllegalArgumentException("Неверное число аргументов: " + command);
+                    }
+                    //аргументы проверяются до изменения графа; вершины, как и в Graph.addEdge, должны уже быть
+                    int weight = query.length == 4 ? weight(query[3]) : 1;
+                    graph.addEdge(query[1], query[2], weight);
+                    break;
+                case "removeVertex":
+                    arguments(query, 2);
+                    graph.removeVertex(query[1]);
+                    break;
+                case "removeEdge":
+                    arguments(query, 3);
+                    graph.removeEdge(query[1], query[2]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный запрос: " + command);
+            }
+            return CompletableFuture.completedFuture("ok");
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private interface Query {
+        String run(Engines engines, int[] ids);
+    }
+
+    //метки переводятся в номера снимка здесь же, через словарь графа: у снимка свой словарь меток
+    //строится лениво, и при частых изменениях строить его на каждый новый снимок слишком дорого
+    private Future<String> read(String[] query, int length, Query body) {
+        arguments(query, length);
+        //снимок кешируется в графе до первого изменения, а snapshotId берет номера из того же снимка
+        CsrGraph<String> current = graph.freeze();
+        int[] ids = new int[length - 1];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = graph.snapshotId(query[i + 1], "Вершина не существует в графе: " + query[i + 1]);
+        }
+        return workers.submit(() -> body.run(engines(current), ids));
+    }
+
+    private Engines engines(CsrGraph<String> current) {
+        Engines local = engines.get();
+        if (local == null || local.graph != current) {
+            local = new Engines(current);
+            engines.set(local);
+        }
+        return local;
+    }
+
+    private static String adjacent(CsrGraph<String> graph, int v) {
+        StringBuilder line = new StringBuilder();
+        for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+            if (line.length() > 0) {
+                line.append(' ');
+            }
+            line.append(graph.vertexAt(graph.targets[e]));
+        }
+        return line.toString();
+    }
+
+    private static int weight(String text) {
+        try {
+            int weight = Integer.parseInt(text);
+            if (weight < 0) {
+                throw new IllegalArgumentException("Вес ребра не может быть отрицательным: " + text);
+            }
+            return weight;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный вес ребра: " + text);
+        }
+    }
+
+    private static void arguments(String[] query, int length) {
+        if (query.length != length) {
+            throw new IllegalArgumentException("Неверное число аргументов: " + query[0]);
+        }
+    }
+
+    private static String join(java.util.List<String> vertices) {
+        return String.join(" ", vertices);
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean directed = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path edges = null;
+        Path snapshot = null;
+        Path out = null;
+        String queries = "-";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--directed":
+                    directed = true;
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--edges":
+                    edges = Paths.get(value(args, ++i));
+                    break;
+                case "--snapshot":
+                    snapshot = Paths.get(value(args, ++i));
+                    break;
+                case "--out":
+                    out = Paths.get(value(args, ++i));
+                    break;
+                default:
+                    queries = args[i];
+            }
+        }
+
+        long started = System.nanoTime();
+        Graph<String> graph;
+        if (snapshot != null) {
+            graph = GraphSnapshot.load(snapshot).toGraph();
+        } else {
+            graph = new Graph<>(directed);
+            if (edges != null) {
+                EdgeListLoader.loadText(edges, graph);
+            }
+        }
+        CsrGraph<String> loaded = graph.freeze();
+        System.err.printf("граф загружен за %d мс: вершин %d, ребер %d%n", (System.nanoTime() - started) / 1_000_000,
+                          loaded.vertexCount(), loaded.edgeCount());
+
+        BufferedReader input = queries.equals("-")
+            ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+            : Files.newBufferedReader(Paths.get(queries), StandardCharsets.UTF_8);
+        Writer output = out == null
+            ? new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8)
+            : Files.newBufferedWriter(out, StandardCharsets.UTF_8);
+
+        GraphBatch batch = new GraphBatch(graph, threads);
+        started = System.nanoTime();
+        long count;
+        try (input) {
+            count = batch.run(input, output);
+        } finally {
+            batch.shutdown();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.err.printf("запросов: %d за %.2f с (%.0f в секунду)%n", count, seconds, count / Math.max(seconds, 1e-9));
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Не указано значение параметра " + args[i - 1]);
+        }
+        return args[i];
+    }
+}
@@ -0,0 +1,729 @@
+package graphs;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.util.*;
+
+//графический интерфейс
+public class GraphGUI {
+    private Graph<String> graph;
+    private JFrame frame;
+    private GraphPanel graphPanel;
+    private JTextArea outputArea;
+    private JTextField vertexField;
+    private JTextField fromField;
+    private JTextField toField;
+    private JTextField weightField;
+    private JComboBox<String> graphTypeCombo;
+    //алгоритмы выполняются в фоне, их вывод пачками попадает в outputArea
+    private final QueryRunner queries = new QueryRunner(this::appendOutput);
+    private static final long QUERY_TIMEOUT_MILLIS = 60_000;
+
+    private final Color PINK_BACKGROUND = new Color(255, 240, 245); 
+    private final Color PINK_PANEL = new Color(255, 228, 225);      
+    private final Color PINK_BUTTON = new Color(255, 192, 203);     
+    private final Color PINK_DARKER = new Color(219, 112, 147);     
+    private final Color PINK_VERTEX = new Color(255, 182, 193);     
+    private final Color PINK_EDGE = new Color(199, 21, 133);        
+
+    public GraphGUI() {
+        graph = new Graph<>(false);
+        initializeGUI();
+    }
+
+    private void initializeGUI() {
+        frame = new JFrame("Graph Visualizer");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setLayout(new BorderLayout());
+        frame.getContentPane().setBackground(PINK_BACKGROUND);
+        //панель управления
+        JPanel controlPanel = createControlPanel();
+        frame.add(controlPanel, BorderLayout.NORTH);
+        //панель графа
+        graphPanel = new GraphPanel();
+        frame.add(new JScrollPane(graphPanel), BorderLayout.CENTER);
+        //вывод
+        outputArea = new JTextArea(10, 40);
+        outputArea.setEditable(false);
+        outputArea.setBackground(PINK_PANEL);
+        outputArea.setForeground(Color.DARK_GRAY);
+        outputArea.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        JScrollPane outputScroll = new JScrollPane(outputArea);
+        outputScroll.setBackground(PINK_PANEL);
+        frame.add(outputScroll, BorderLayout.SOUTH);
+        frame.pack();
+        frame.setSize(800, 700);
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+    }
+
+    private JPanel createControlPanel() {
+        JPanel panel = new JPanel(new GridLayout(3, 1));
+        panel.setBackground(PINK_PANEL);
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        JPanel row1 = new JPanel();
+        stylePanel(row1);
+        row1.add(createStyledLabel("Тип графа:"));
+        graphTypeCombo = new JComboBox<>(new String[]{"Неориентированный", "Ориентированный"});
+        styleComboBox(graphTypeCombo);
+        graphTypeCombo.addActionListener(e -> updateGraphType());
+        row1.add(graphTypeCombo);
+        row1.add(createStyledLabel("Вершина:"));
+        vertexField = new JTextField(5);
+        styleTextField(vertexField);
+        row1.add(vertexField);
+        JButton addVertexBtn = createStyledButton("Добавить вершину");
+        addVertexBtn.addActionListener(e -> addVertex());
+        row1.add(addVertexBtn);
+        JButton removeVertexBtn = createStyledButton("Удалить вершину");
+        removeVertexBtn.addActionListener(e -> removeVertex());
+        row1.add(removeVertexBtn);
+        JPanel row2 = new JPanel();
+        stylePanel(row2);
+        row2.add(createStyledLabel("Из:"));
+        fromField = new JTextField(3);
+        styleTextField(fromField);
+        row2.add(fromField);
+
+        row2.add(createStyledLabel("В:"));
+        toField = new JTextField(3);
+        styleTextField(toField);
+        row2.add(toField);
+
+        row2.add(createStyledLabel("Вес:"));
+        weightField = new JTextField(3);
+        styleTextField(weightField);
+        weightField.setText("1");
+        row2.add(weightField);
+
+        JButton addEdgeBtn = createStyledButton("Добавить ребро");
+        addEdgeBtn.addActionListener(e -> addEdge());
+        row2.add(addEdgeBtn);
+        JButton removeEdgeBtn = createStyledButton("Удалить ребро");
+        removeEdgeBtn.addActionListener(e -> removeEdge());
+        row2.add(removeEdgeBtn);
+        JPanel row3 = new JPanel();
+        stylePanel(row3);
+        JButton dfsBtn = createStyledButton("DFS обход");
+        dfsBtn.addActionListener(e -> performDFS());
+        row3.add(dfsBtn);
+
+        JButton bfsBtn = createStyledButton("BFS обход");
+        bfsBtn.addActionListener(e -> performBFS());
+        row3.add(bfsBtn);
+        JButton adjacentBtn = createStyledButton("Смежные вершины");
+        adjacentBtn.addActionListener(e -> getAdjacent());
+        row3.add(adjacentBtn);
+        JButton dijkstraBtn = createStyledButton("Дейкстра");
+        dijkstraBtn.addActionListener(e -> performDijkstra());
+        row3.add(dijkstraBtn);
+        JButton saveBtn = createStyledButton("Сохранить");
+        saveBtn.addActionListener(e -> saveGraph());
+        row3.add(saveBtn);
+        JButton loadBtn = createStyledButton("Загрузить");
+        loadBtn.addActionListener(e -> loadGraph());
+        row3.add(loadBtn);
+        JButton cancelBtn = createStyledButton("Отменить");
+        cancelBtn.addActionListener(e -> queries.cancelAll());
+        row3.add(cancelBtn);
+        JButton clearBtn = createStyledButton("Очистить");
+        clearBtn.addActionListener(e -> clearGraph());
+        row3.add(clearBtn);
+        panel.add(row1);
+        panel.add(row2);
+        panel.add(row3);
+        return panel;
+    }
+    private void stylePanel(JPanel panel) {
+        panel.setBackground(PINK_PANEL);
+        panel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+    }
+    private JLabel createStyledLabel(String text) {
+        JLabel label = new JLabel(text);
+        label.setForeground(PINK_DARKER);
+        label.setFont(new Font("SansSerif", Font.BOLD, 12));
+        return label;
+    }
+    private void styleTextField(JTextField field) {
+        field.setBackground(Color.WHITE);
+        field.setForeground(Color.DARK_GRAY);
+        field.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        field.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(PINK_DARKER, 1),
+            BorderFactory.createEmptyBorder(2, 5, 2, 5)
+        ));
+    }
+    private void styleComboBox(JComboBox<String> combo) {
+        combo.setBackground(Color.WHITE);
+        combo.setForeground(Color.DARK_GRAY);
+        combo.setFont(new Font("SansSerif", Font.PLAIN, 12));
+    }
+
+    private JButton createStyledButton(String text) {
+        JButton button = new JButton(text);
+        button.setBackground(PINK_BUTTON);
+        button.setForeground(Color.WHITE);
+        button.setFont(new Font("SansSerif", Font.BOLD, 11));
+        button.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(PINK_DARKER, 2),
+            BorderFactory.createEmptyBorder(5, 10, 5, 10)
+        ));
+        button.setFocusPainted(false);
+        button.addMouseListener(new MouseAdapter() {
+            public void mouseEntered(MouseEvent evt) {
+                button.setBackground(PINK_DARKER);
+            }
+            public void mouseExited(MouseEvent evt) {
+                button.setBackground(PINK_BUTTON);
+            }
+        });
+        
+        return button;
+    }
+
+    private void updateGraphType() {
+        boolean directed = graphTypeCombo.getSelectedIndex() == 1;
+        graph = new Graph<>(directed);
+        log("Создан " + (directed ? "ориентированный" : "неориентированный") + " граф");
+        graphPanel.repaint();
+    }
+
+    private void addVertex() {
+        try {
+            String vertex = vertexField.getText().trim();
+            if (vertex.isEmpty()) {
+                showError("Введите название вершины");
+                return;
+            }
+            graph.addVertex(vertex);
+            log("Добавлена вершина: " + vertex);
+            vertexField.setText("");
+            graphPanel.repaint();
+        } catch (Exception e) {
+            showError(e.getMessage());
+        }
+    }
+
+    private void removeVertex() {
+        try {
+            String vertex = vertexField.getText().trim();
+            if (vertex.isEmpty()) {
+                showError("Введите название вершины");
+                return;
+            }
+            graph.removeVertex(vertex);
+            log("Удалена вершина: " + vertex);
+            vertexField.setText("");
+            graphPanel.repaint();
+        } catch (Exception e) {
+            showError(e.getMessage());
+        }
+    }
+
+    private void addEdge() {
+        try {
+            String from = fromField.getText().trim();
+            String to = toField.getText().trim();
+            String weightText = weightField.getText().trim();
+            
+            if (from.isEmpty() || to.isEmpty()) {
+                showError("Введите вершины 'Из' и 'В'");
+                return;
+            }
+            
+            int weight = 1;
+            if (!weightText.isEmpty()) {
+                weight = Integer.parseInt(weightText);
+            }
+            
+            graph.addEdge(from, to, weight);
+            log("Добавлено ребро: " + from + " → " + to + " (вес: " + weight + ")");
+            fromField.setText("");
+            toField.setText("");
+            graphPanel.repaint();
+        } catch (Exception e) {
+            showError(e.getMessage());
+        }
+    }
+
+    private void removeEdge() {
+        try {
+            String from = fromField.getText().trim();
+            String to = toField.getText().trim();
+            
+            if (from.isEmpty() || to.isEmpty()) {
+                showError("Введите вершины 'Из' и 'В'");
+                return;
+            }
+            
+            graph.removeEdge(from, to);
+            log("Удалено ребро: " + from + " → " + to);
+            fromField.setText("");
+            toField.setText("");
+            graphPanel.repaint();
+        } catch (Exception e) {
+            showError(e.getMessage());
+        }
+    }
+
+    private void performDFS() {
+        String start = JOptionPane.showInputDialog(frame, "Введите начальную вершину для DFS:");
+        if (start != null && !start.trim().isEmpty()) {
+            runTraversal("DFS обход из " + start.trim(), start.trim(), true);
+        }
+    }
+
+    private void performBFS() {
+        String start = JOptionPane.showInputDialog(frame, "Введите начальную вершину для BFS:");
+        if (start != null && !start.trim().isEmpty()) {
+            runTraversal("BFS обход из " + start.trim(), start.trim(), false);
+        }
+    }
+
+    //обход идет в фоне по снимку графа, вершины выводятся по мере посещения
+    //вершины проверяются по словарю графа: словарь меток снимка строится за O(V), это дело фонового потока
+    private void runTraversal(String title, String start, boolean depthFirst) {
+        if (!graph.containsVertex(start)) {
+            showError("Начальная вершина не существует в графе");
+            return;
+        }
+        CsrGraph<String> snapshot = graph.freeze();
+        queries.submit(title, out -> {
+            TraversalVisitor<String> visitor = new TraversalVisitor<>() {
+                private boolean first = true;
+
+                @Override
+                public void preVisit(String vertex) {
+                    out.append(first ? vertex : ", " + vertex);
+                    first = false;
+                }
+            };
+            if (depthFirst) {
+                snapshot.dfs(start, visitor);
+            } else {
+                snapshot.bfs(start, visitor);
+            }
+        }, QUERY_TIMEOUT_MILLIS);
+    }
+
+    private void getAdjacent() {
+        try {
+            String vertex = JOptionPane.showInputDialog(frame, "Введите вершину для получения смежных:");
+            if (vertex != null && !vertex.trim().isEmpty()) {
+                java.util.List<String> adjacent = graph.getAdjacent(vertex.trim());
+                log(" Смежные с " + vertex + ": " + adjacent);
+            }
+        } catch (Exception e) {
+            showError(e.getMessage());
+        }
+    }
+
+    private void performDijkstra() {
+        String from = JOptionPane.showInputDialog(frame, "Введите начальную вершину:");
+        String to = JOptionPane.showInputDialog(frame, "Введите конечную вершину:");
+        if (from == null || to == null || from.trim().isEmpty() || to.trim().isEmpty()) {
+            return;
+        }
+        String source = from.trim();
+        String target = to.trim();
+        if (!graph.containsVertex(source) || !graph.containsVertex(target)) {
+            showError("Вершины должны существовать в графе");
+            return;
+        }
+        CsrGraph<String> snapshot = graph.freeze();
+        queries.submit("Дейкстра " + source + " → " + target, out -> {
+            java.util.List<String> path = snapshot.dijkstra(source, target);
+            out.checkCancelled();
+            out.append(path.isEmpty() ? "путь не существует" : "кратчайший путь " + path);
+        }, QUERY_TIMEOUT_MILLIS);
+    }
+
+    private void saveGraph() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            GraphSnapshot.save(graph.freeze(), chooser.getSelectedFile().toPath());
+            log("Граф сохранен: " + chooser.getSelectedFile());
+        } catch (Exception e) {
+            showError(e.getMessage());
+        }
+    }
+
+    private void loadGraph() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            CsrGraph<String> loaded = GraphSnapshot.load(chooser.getSelectedFile().toPath());
+            //смена типа в списке пересоздает граф, поэтому загруженный граф подставляем после нее
+            graphTypeCombo.setSelectedIndex(loaded.isDirected() ? 1 : 0);
+            graph = loaded.toGraph();
+            log("Граф загружен: " + chooser.getSelectedFile());
+            graphPanel.repaint();
+        } catch (Exception e) {
+            showError(e.getMessage());
+        }
+    }
+
+    private void clearGraph() {
+        graph = new Graph<>(graphTypeCombo.getSelectedIndex() == 1);
+        log(" Граф очищен");
+        graphPanel.repaint();
+    }
+
+    private void log(String message) {
+        appendOutput(" " + message + "\n");
+    }
+
+    private void appendOutput(String text) {
+        outputArea.append(text);
+        outputArea.setCaretPosition(outputArea.getDocument().getLength());
+    }
+
+    private void showError(String message) {
+        JOptionPane.showMessageDialog(frame, message, "Ошибка", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private class GraphPanel extends JPanel {
+        private static final int VERTEX_RADIUS = 20;
+        private static final int PANEL_SIZE = 600;
+        //меньше этого радиуса вершины рисуются точками без подписей, стрелок и весов
+        private static final double DETAIL_RADIUS = 8;
+        //меньше этого радиуса вместо вершин рисуется плотность по ячейкам сетки
+        private static final double AGGREGATE_RADIUS = 2;
+        private static final int AGGREGATE_CELL = 4;
+        //снимок для рисования после изменений графа берется не чаще, чем раз в столько миллисекунд
+        private static final int REFREEZE_MILLIS = 100;
+        private final Font weightFont = new Font("SansSerif", Font.BOLD, 12);
+        private final BasicStroke stroke = new BasicStroke(2);
+        private final BasicStroke thinStroke = new BasicStroke(1);
+        
+        //то, что уже нарисовано; пересобирается только при изменении графа, размера панели или вида,
+        //а обычная перерисовка просто копирует нужный кусок готового изображения
+        private Graph<String> renderedGraph;
+        private long renderedVersion = -1;
+        private CsrGraph<String> model;
+        private ForceLayout.Frame<String> renderedFrame;
+        private VertexGrid grid;
+        private BufferedImage staticLayer;
+        private boolean viewChanged;
+        //укладка считается в фоне, а о каждом новом кадре панель узнает через перерисовку
+        private final ForceLayout<String> layout = new ForceLayout<>(() -> SwingUtilities.invokeLater(this::repaint));
+        //граф меняется только в EDT, поэтому и снимок берется в EDT, но серия изменений (загрузка, пакет ребер)
+        //стоит одного снимка на интервал, а не одного на каждое изменение; до тех пор видна старая картинка
+        private final javax.swing.Timer refreeze = new javax.swing.Timer(REFREEZE_MILLIS, e -> {
+            if (renderedGraph != graph || renderedVersion != graph.version()) {
+                takeSnapshot();
+                repaint();
+            }
+        });
+        
+        //вид: zoom = 1 и нулевой сдвиг - весь граф вписан в панель
+        private double zoom = 1;
+        private double panX;
+        private double panY;
+        //экранная точка вершины: x * scale + translateX
+        private double scale;
+        private double translateX;
+        private double translateY;
+        
+        //видимые вершины последней перерисовки, отметки сбрасываются после рисования
+        private int[] visibleIds = new int[0];
+        private boolean[] visible = new boolean[0];
+        private int visibleCount;
+        
+        public GraphPanel() {
+            setPreferredSize(new Dimension(PANEL_SIZE, PANEL_SIZE));
+            setBackground(PINK_BACKGROUND);
+            
+            MouseAdapter navigation = new MouseAdapter() {
+                private Point dragStart;
+                
+                public void mousePressed(MouseEvent evt) {
+                    dragStart = evt.getPoint();
+                }
+                
+                public void mouseDragged(MouseEvent evt) {
+                    if (dragStart == null) return;
+                    panX += evt.getX() - dragStart.x;
+                    panY += evt.getY() - dragStart.y;
+                    dragStart = evt.getPoint();
+                    changeView();
+                }
+                
+                public void mouseReleased(MouseEvent evt) {
+                    dragStart = null;
+                }
+                
+                //двойной щелчок возвращает весь граф в панель
+                public void mouseClicked(MouseEvent evt) {
+                    if (evt.getClickCount() == 2) {
+                        zoom = 1;
+                        panX = 0;
+                        panY = 0;
+                        changeView();
+                    }
+                }
+                
+                //масштаб меняется относительно точки под курсором
+                public void mouseWheelMoved(MouseWheelEvent evt) {
+                    double factor = Math.pow(1.2, -evt.getPreciseWheelRotation());
+                    double newZoom = Math.max(0.2, Math.min(1e5, zoom * factor));
+                    factor = newZoom / zoom;
+                    zoom = newZoom;
+                    panX = evt.getX() - (evt.getX() - panX) * factor;
+                    panY = evt.getY() - (evt.getY() - panY) * factor;
+                    changeView();
+                }
+            };
+            addMouseListener(navigation);
+            addMouseMotionListener(navigation);
+            addMouseWheelListener(navigation);
+            refreeze.setRepeats(false);
+        }
+        
+        private void changeView() {
+            viewChanged = true;
+            repaint();
+        }
+        
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            ensureRendered();
+            if (staticLayer == null) return;
+            
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            g.drawImage(staticLayer, clip.x, clip.y, clip.x + clip.width, clip.y + clip.height,
+                        clip.x, clip.y, clip.x + clip.width, clip.y + clip.height, null);
+        }
+        
+        private void ensureRendered() {
+            int width = getWidth();
+            int height = getHeight();
+            if (width <= 0 || height <= 0) return;
+            
+            if (renderedGraph != graph || model == null) {
+                takeSnapshot();
+            } else if (renderedVersion != graph.version() && !refreeze.isRunning()) {
+                refreeze.start();
+            }
+            
+            //пока укладка нового снимка не прислала первый кадр, остается старая картинка
+            ForceLayout.Frame<String> frame = layout.frame();
+            if (frame == null || frame.graph != model) return;
+            boolean sizeChanged = staticLayer == null
+                || staticLayer.getWidth() != width || staticLayer.getHeight() != height;
+            if (frame == renderedFrame && !sizeChanged && !viewChanged) return;
+            if (frame != renderedFrame) {
+                renderedFrame = frame;
+                grid = new VertexGrid(frame.x, frame.y);
+                if (visible.length < model.vertexCount()) {
+                    visible = new boolean[model.vertexCount()];
+                }
+            }
+            viewChanged = false;
+            updateTransform(width, height);
+            
+            if (sizeChanged) {
+                GraphicsConfiguration config = getGraphicsConfiguration();
+                staticLayer = config != null
+                    ? config.createCompatibleImage(width, height)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            }
+            Graphics2D g2d = staticLayer.createGraphics();
+            try {
+                g2d.setColor(PINK_BACKGROUND);
+                g2d.fillRect(0, 0, width, height);
+                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                drawVisible(g2d, width, height);
+            } finally {
+                g2d.dispose();
+            }
+        }
+        
+        private void takeSnapshot() {
+            renderedGraph = graph;
+            renderedVersion = graph.version();
+            model = graph.freeze();
+            layout.setGraph(model);
+        }
+        
+        //вписывает координаты укладки в панель с отступом от краев, затем применяет масштаб и сдвиг вида.
+        //границы кадра посчитаны один раз при построении сетки
+        private void updateTransform(int width, int height) {
+            double minX = grid.minX();
+            double minY = grid.minY();
+            double maxX = grid.maxX();
+            double maxY = grid.maxY();
+            int margin = 50;
+            double spanX = Math.max(maxX - minX, 1e-9);
+            double spanY = Math.max(maxY - minY, 1e-9);
+            double fit = Math.max(1e-9, Math.min((width - 2 * margin) / spanX, (height - 2 * margin) / spanY));
+            double offsetX = (width - spanX * fit) / 2 - minX * fit;
+            double offsetY = (height - spanY * fit) / 2 - minY * fit;
+            
+            scale = fit * zoom;
+            translateX = offsetX * zoom + panX;
+            translateY = offsetY * zoom + panY;
+        }
+        
+        private int screenX(int v) {
+            return (int)(renderedFrame.x[v] * scale + translateX);
+        }
+        
+        private int screenY(int v) {
+            return (int)(renderedFrame.y[v] * scale + translateY);
+        }
+        
+        //рисует только то, что попадает в панель: вершины выбираются по сетке,
+        //а ребра - только те, у которых хотя бы один конец виден
+        private void drawVisible(Graphics2D g2d, int width, int height) {
+            //в укладке соседи стоят примерно на единичном расстоянии, радиус вершины не больше трети его
+            double radius = Math.min(VERTEX_RADIUS, 0.35 * scale);
+            double pad = (radius + 1) / scale;
+            double x0 = -translateX / scale - pad;
+            double y0 = -translateY / scale - pad;
+            double x1 = (width - translateX) / scale + pad;
+            double y1 = (height - translateY) / scale + pad;
+            
+            if (radius < AGGREGATE_RADIUS) {
+                drawDensity(g2d, x0, y0, x1, y1);
+                return;
+            }
+            
+            visibleCount = 0;
+            grid.query(x0, y0, x1, y1, v -> {
+                if (visibleCount == visibleIds.length) {
+                    visibleIds = Arrays.copyOf(visibleIds, Math.max(16, visibleCount * 2));
+                }
+                visibleIds[visibleCount++] = v;
+                visible[v] = true;
+            });
+            try {
+                boolean detailed = radius >= DETAIL_RADIUS;
+                drawEdges(g2d, (int) radius, detailed);
+                drawVertices(g2d, (int) radius, detailed);
+            } finally {
+                for (int i = 0; i < visibleCount; i++) {
+                    visible[visibleIds[i]] = false;
+                }
+            }
+        }
+        
+        //уровень пирамиды выбирается так, чтобы ячейка занимала несколько пикселей,
+        //поэтому число рисуемых ячеек ограничено размером панели, а не графа
+        private void drawDensity(Graphics2D g2d, double x0, double y0, double x1, double y1) {
+            int level = 0;
+            while (level + 1 < grid.levels() && grid.cellSize(level) * scale < AGGREGATE_CELL) {
+                level++;
+            }
+            int size = Math.max(1, (int) Math.ceil(grid.cellSize(level) * scale));
+            grid.aggregate(level, x0, y0, x1, y1, (cellX, cellY, count) -> {
+                int alpha = (int) Math.min(255, 60 + 40 * Math.log(count) / Math.log(2));
+                g2d.setColor(new Color(PINK_VERTEX.getRed(), PINK_VERTEX.getGreen(), PINK_VERTEX.getBlue(), alpha));
+                g2d.fillRect((int)(cellX * scale + translateX), (int)(cellY * scale + translateY), size, size);
+            });
+        }
+        
+        private void drawEdges(Graphics2D g2d, int radius, boolean detailed) {
+            g2d.setStroke(detailed ? stroke : thinStroke);
+            g2d.setFont(weightFont);
+            boolean directed = model.isDirected();
+            
+            for (int i = 0; i < visibleCount; i++) {
+                int from = visibleIds[i];
+                for (int e = model.offsets[from]; e < model.offsets[from + 1]; e++) {
+                    int to = model.targets[e];
+                    //в неориентированном снимке каждое ребро хранится дважды, рисуем его один раз
+                    if (!directed && visible[to] && to < from) continue;
+                    drawEdge(g2d, from, to, model.weights[e], radius, detailed);
+                }
+            }
+            //входящие ребра из невидимых вершин ориентированного графа; вес берется из обратного снимка,
+            //чтобы не искать ребро в списке исходящей вершины
+            if (directed) {
+                CsrGraph<String> reverse = model.reverse();
+                for (int i = 0; i < visibleCount; i++) {
+                    int to = visibleIds[i];
+                    for (int r = reverse.offsets[to]; r < reverse.offsets[to + 1]; r++) {
+                        int from = reverse.targets[r];
+                        if (visible[from]) continue;
+                        drawEdge(g2d, from, to, reverse.weights[r], radius, detailed);
+                    }
+                }
+            }
+        }
+        
+        private void drawEdge(Graphics2D g2d, int from, int to, int weight, int radius, boolean detailed) {
+            Point fromPoint = new Point(screenX(from), screenY(from));
+            Point toPoint = new Point(screenX(to), screenY(to));
+            
+            g2d.setColor(PINK_EDGE);
+            if (detailed && model.isDirected()) {
+                drawArrow(g2d, fromPoint, toPoint, radius);
+            } else {
+                g2d.drawLine(fromPoint.x, fromPoint.y, toPoint.x, toPoint.y);
+            }
+            
+            //подписи только в подробном виде, то есть для немногих видимых ребер, поэтому строятся на месте
+            if (detailed && weight != 1) {
+                int labelX = (fromPoint.x + toPoint.x) / 2;
+                int labelY = (fromPoint.y + toPoint.y) / 2;
+                g2d.setColor(PINK_DARKER);
+                g2d.drawString(String.valueOf(weight), labelX, labelY);
+            }
+        }
+        
+        private void drawArrow(Graphics2D g2d, Point from, Point to, int radius) {
+            g2d.drawLine(from.x, from.y, to.x, to.y);
+            
+            double angle = Math.atan2(to.y - from.y, to.x - from.x);
+            int arrowSize = 10;
+            int endX = to.x - (int)(radius * Math.cos(angle));
+            int endY = to.y - (int)(radius * Math.sin(angle));
+            
+            Polygon arrowHead = new Polygon();
+            arrowHead.addPoint(endX, endY);
+            arrowHead.addPoint(endX - arrowSize, endY - arrowSize / 2);
+            arrowHead.addPoint(endX - arrowSize, endY + arrowSize / 2);
+            
+            g2d.fill(arrowHead);
+        }
+        
+        private void drawVertices(Graphics2D g2d, int radius, boolean detailed) {
+            g2d.setStroke(stroke);
+            FontMetrics fm = g2d.getFontMetrics();
+            
+            for (int i = 0; i < visibleCount; i++) {
+                int v = visibleIds[i];
+                int x = screenX(v);
+                int y = screenY(v);
+                g2d.setColor(PINK_VERTEX);
+                g2d.fillOval(x - radius, y - radius, radius * 2, radius * 2);
+                if (!detailed) continue;
+                
+                String vertex = model.vertexAt(v);
+                g2d.setColor(PINK_DARKER);
+                g2d.drawOval(x - radius, y - radius, radius * 2, radius * 2);
+                int textWidth = fm.stringWidth(vertex);
+                int textHeight = fm.getHeight();
+                g2d.drawString(vertex, x - textWidth / 2, y + textHeight / 4);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        SwingUtilities.invokeLater(() -> {
+            new GraphGUI();
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,578 @@
+package graphs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+//журнал изменений графа (write-ahead log) для Graph<String>. каталог журнала содержит базовый снимок
+//snapshot-<N>.bin (формат GraphSnapshot) и сегменты journal-<M>.log с изменениями, сделанными после него (M >= N).
+//изменения приходят через GraphListener и кодируются в буфер в памяти; отдельный поток раз в commitMillis
+//или при заполнении буфера дописывает накопленное одним кадром и вызывает один force на весь кадр (group commit).
+//кадр: длина, CRC32C длины, CRC32C длины и записей, записи. у длины своя контрольная сумма, чтобы испорченная длина,
+//указывающая за конец файла, не выдала себя за оборванный кадр. оборванный кадр в конце последнего сегмента
+//(сбой посреди записи) при восстановлении отрезается; испорченный кадр в любом другом месте - ошибка,
+//иначе собралось бы состояние, которого не было.
+//записи: тип (байт), метки как varint-длина + UTF-8, вес как zigzag varint.
+//сжатие сохраняет снимок графа и удаляет сегменты, которые в него вошли; снимок пишется в фоне, а его ошибки
+//не ломают журнал: старые файлы остаются, и сжатие повторяется при следующем sync.
+//граф, как обычно, меняется из одного потока; sync и compact вызываются из него же, вне изменений графа
+class GraphJournal implements Closeable {
+    private static final int MAGIC = 0x474A4E4C;
+    private static final short VERSION = 1;
+    private static final short FLAG_DIRECTED = 1;
+    private static final int SEGMENT_HEADER = 16;
+    private static final int FRAME_HEADER = 12;
+
+    private static final byte ADD_VERTEX = 1;
+    private static final byte REMOVE_VERTEX = 2;
+    private static final byte ADD_EDGE = 3;
+    private static final byte REMOVE_EDGE = 4;
+
+    private final Path directory;
+    private final Graph<String> graph;
+    private final long commitMillis;
+    private final int maxBatchBytes;
+    private final long compactThreshold;
+
+    //буфер записей, еще не переданных потоку записи; под lock
+    private final Object lock = new Object();
+    private byte[] pending = new byte[1 << 16];
+    private int pendingSize;
+    private long appended;
+    private long durable;
+    private boolean flushRequested;
+    private boolean closed;
+    //ошибка записи или force сегмента: после нее изменения уже нельзя сохранить
+    private IOException failure;
+    //последняя ошибка фонового сжатия; на запись журнала не влияет
+    private volatile IOException compactionFailure;
+    private volatile boolean compactionRetry;
+    private final Recorder recorder = new Recorder();
+
+    //держит поток записи на время записи кадра и force, а сжатие - на время смены сегмента
+    private final ReentrantLock io = new ReentrantLock();
+    private FileChannel channel;
+    private long generation;
+    private volatile long bytesSinceSnapshot;
+
+    private final Thread writer;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "graph-journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean compacting;
+
+    private GraphJournal(Path directory, Graph<String> graph, long generation,
+                         long commitMillis, int maxBatchBytes, long compactThreshold) throws IOException {
+        this.directory = directory;
+        this.graph = graph;
+        this.generation = generation;
+        this.commitMillis = commitMillis;
+        this.maxBatchBytes = maxBatchBytes;
+        this.compactThreshold = compactThreshold;
+        this.channel = createSegment(generation);
+        this.writer = new Thread(this::writeLoop, "graph-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        graph.addListener(recorder);
+    }
+
+    //восстанавливает граф из каталога (снимок + все сегменты после него) и продолжает журнал в новом сегменте.
+    //directed используется, только если каталог пуст
+    public static GraphJournal open(Path directory, boolean directed) throws IOException {
+        return open(directory, directed, 5, 1 << 20, 256L << 20);
+    }
+
+    public static GraphJournal open(Path directory, boolean directed, long commitMillis,
+                                    int maxBatchBytes, long compactThreshold) throws IOException {
+        Files.createDirectories(directory);
+        long snapshotGeneration = -1;
+        for (long g : generations(directory, "snapshot-", ".bin")) {
+            snapshotGeneration = Math.max(snapshotGeneration, g);
+        }
+        Graph<String> graph = snapshotGeneration >= 0
+            ? GraphSnapshot.load(snapshotPath(directory, snapshotGeneration)).toGraph()
+            : new Graph<>(directed);
+
+        long last = Math.max(snapshotGeneration, 0);
+        long replayed = 0;
+        long[] segments = generations(directory, "journal-", ".log");
+        for (int i = 0; i < segments.length; i++) {
+            long g = segments[i];
+            if (g >= snapshotGeneration) {
+                replayed += replay(segmentPath(directory, g), graph, i == segments.length - 1);
+                last = Math.max(last, g + 1);
+            }
+        }
+        GraphJournal journal = new GraphJournal(directory, graph, last, commitMillis, maxBatchBytes, compactThreshold);
+        //непоглощенные снимком сегменты тоже считаются в размер журнала для сжатия
+        journal.bytesSinceSnapshot = replayed;
+        return journal;
+    }
+
+    public Graph<String> graph() {
+        return graph;
+    }
+
+    //ждет, пока все уже сделанные изменения окажутся на диске; заодно запускает сжатие, если журнал разросся
+    public void sync() throws IOException {
+        synchronized (lock) {
+            long target = appended;
+            flushRequested = true;
+            lock.notifyAll();
+            while (durable < target && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Ожидание записи журнала прервано", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        if ((bytesSinceSnapshot > compactThreshold || compactionRetry) && !compacting) {
+            compact();
+        }
+    }
+
+    //сколько записей добавлено и сколько из них уже на диске
+    public long appended() {
+        synchronized (lock) {
+            return appended;
+        }
+    }
+
+    public long durable() {
+        synchronized (lock) {
+            return durable;
+        }
+    }
+
+    //ошибка последнего неудачного сжатия или null
+    public IOException compactionFailure() {
+        return compactionFailure;
+    }
+
+    //снимок текущего графа становится новой базой: журнал переключается на новый сегмент сразу,
+    //а снимок пишется и старые файлы удаляются в фоне
+    public void compact() throws IOException {
+        CsrGraph<String> snapshot = graph.freeze();
+        long base;
+        io.lock();
+        try {
+            writeBatch(takeBatch());
+            channel.close();
+            generation++;
+            base = generation;
+            channel = createSegment(base);
+            bytesSinceSnapshot = 0;
+        } finally {
+            io.unlock();
+        }
+        compacting = true;
+        compactionRetry = false;
+        compactor.execute(() -> {
+            try {
+                //save пишет через временный файл и fsync каталога, так что новый снимок на диске раньше,
+                //чем исчезнут старый снимок и сегменты
+                GraphSnapshot.save(snapshot, snapshotPath(directory, base));
+                for (long g : generations(directory, "snapshot-", ".bin")) {
+                    if (g < base) {
+                        Files.deleteIfExists(snapshotPath(directory, g));
+                    }
+                }
+                for (long g : generations(directory, "journal-", ".log")) {
+                    if (g < base) {
+                        Files.deleteIfExists(segmentPath(directory, g));
+                    }
+                }
+                compactionFailure = null;
+            } catch (IOException e) {
+                //старые снимок и сегменты на месте, восстановление по ним по-прежнему возможно
+                compactionFailure = e;
+                compactionRetry = true;
+                System.getLogger(GraphJournal.class.getName())
+                    .log(System.Logger.Level.WARNING, "Сжатие журнала не удалось, повтор при следующем sync", e);
+            } finally {
+                compacting = false;
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        graph.removeListener(recorder);
+        synchronized (lock) {
+            flushRequested = true;
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        io.lock();
+        try {
+            channel.close();
+        } finally {
+            io.unlock();
+        }
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private final class Recorder implements GraphListener<String> {
+        @Override
+        public void vertexAdded(String v) {
+            append(ADD_VERTEX, v, null, 0);
+        }
+
+        @Override
+        public void vertexRemoved(String v) {
+            append(REMOVE_VERTEX, v, null, 0);
+        }
+
+        @Override
+        public void edgeAdded(String from, String to, int weight, int oldWeight) {
+            append(ADD_EDGE, from, to, weight);
+        }
+
+        @Override
+        public void edgeRemoved(String from, String to, int weight) {
+            append(REMOVE_EDGE, from, to, 0);
+        }
+    }
+
+    private void append(byte type, String first, String second, int weight) {
+        byte[] a = first.getBytes(StandardCharsets.UTF_8);
+        byte[] b = second == null ? null : second.getBytes(StandardCharsets.UTF_8);
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Журнал закрыт");
+            }
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+            ensurePending(1 + 5 + a.length + (b == null ? 0 : 5 + b.length) + 5);
+            pending[pendingSize++] = type;
+            putLabel(a);
+            if (b != null) {
+                putLabel(b);
+            }
+            if (type == ADD_EDGE) {
+                putVarint((weight << 1) ^ (weight >> 31));
+            }
+            appended++;
+            if (pendingSize >= maxBatchBytes) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void ensurePending(int extra) {
+        if (pendingSize + extra > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingSize + extra));
+        }
+    }
+
+    private void putLabel(byte[] label) {
+        putVarint(label.length);
+        System.arraycopy(label, 0, pending, pendingSize, label.length);
+        pendingSize += label.length;
+    }
+
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            pending[pendingSize++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        pending[pendingSize++] = (byte) value;
+    }
+
+    //накопленные записи и номер последней из них; вызывается под io
+    private Batch takeBatch() {
+        synchronized (lock) {
+            Batch batch = new Batch(Arrays.copyOf(pending, pendingSize), appended);
+            pendingSize = 0;
+            flushRequested = false;
+            return batch;
+        }
+    }
+
+    private static final class Batch {
+        final byte[] records;
+        final long sequence;
+
+        Batch(byte[] records, long sequence) {
+            this.records = records;
+            this.sequence = sequence;
+        }
+    }
+
+    //вызывается под io
+    private void writeBatch(Batch batch) throws IOException {
+        if (batch.records.length > 0) {
+            int length = batch.records.length;
+            ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + length).order(ByteOrder.LITTLE_ENDIAN);
+            frame.putInt(length).putInt(lengthChecksum(length)).putInt(checksum(length, batch.records, length))
+                 .put(batch.records).flip();
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+            channel.force(false);
+            bytesSinceSnapshot += frame.capacity();
+        }
+        synchronized (lock) {
+            durable = Math.max(durable, batch.sequence);
+            lock.notifyAll();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            synchronized (lock) {
+                long deadline = System.currentTimeMillis() + commitMillis;
+                while (!closed && !flushRequested && pendingSize < maxBatchBytes) {
+                    long wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0) {
+                        break;
+                    }
+                    try {
+                        lock.wait(wait);
+                    } catch (InterruptedException e) {
+                        //иначе sync ждал бы вечно
+                        failure = new InterruptedIOException("Поток записи журнала прерван");
+                        lock.notifyAll();
+                        return;
+                    }
+                }
+                if (closed && pendingSize == 0) {
+                    return;
+                }
+                if (pendingSize == 0 && !flushRequested) {
+                    continue;
+                }
+            }
+            io.lock();
+            try {
+                writeBatch(takeBatch());
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            } finally {
+                io.unlock();
+            }
+        }
+    }
+
+    private FileChannel createSegment(long g) throws IOException {
+        FileChannel segment = FileChannel.open(segmentPath(directory, g), StandardOpenOption.CREATE_NEW,
+                                               StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).putShort(graph.isDirected() ? FLAG_DIRECTED : 0).putLong(g).flip();
+        while (header.hasRemaining()) {
+            segment.write(header);
+        }
+        segment.force(true);
+        GraphSnapshot.syncDirectory(directory);
+        return segment;
+    }
+
+    //применяет к графу все кадры сегмента, читая их по одному; записи, противоречащие графу
+    //(например, повтор удаления после сжатия посреди удаления вершины), пропускаются.
+    //у последнего сегмента оборванный хвост отрезается, чтобы следующий сегмент продолжал целый журнал.
+    //возвращает число байт целых кадров
+    private static long replay(Path segment, Graph<String> graph, boolean last) throws IOException {
+        if (last && Files.size(segment) < SEGMENT_HEADER) {
+            //сбой при создании сегмента: записей в нем нет
+            Files.delete(segment);
+            GraphSnapshot.syncDirectory(segment.getParent());
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            if (readFully(channel, header, 0) < SEGMENT_HEADER || header.flip().getInt() != MAGIC) {
+                throw new IOException("Файл не является сегментом журнала: " + segment);
+            }
+            if (header.getShort() != VERSION) {
+                throw new IOException("Неподдерживаемая версия журнала: " + segment);
+            }
+
+            long position = SEGMENT_HEADER;
+            ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            while (position < size) {
+                //оборванным считается только кадр, на котором действительно кончается файл:
+                //недописанный заголовок, кадр с проверенной длиной за концом файла или последний кадр с неверной суммой
+                boolean torn;
+                int length = -1;
+                ByteBuffer frame = null;
+                if (size - position < FRAME_HEADER) {
+                    torn = true;
+                } else {
+                    frameHeader.clear();
+                    readFully(channel, frameHeader, position);
+                    frameHeader.flip();
+                    length = frameHeader.getInt();
+                    int lengthChecksum = frameHeader.getInt();
+                    int checksum = frameHeader.getInt();
+                    if (length < 0 || lengthChecksum != lengthChecksum(length)) {
+                        throw new IOException("Сегмент журнала поврежден: " + segment + ", позиция " + position);
+                    }
+                    long end = position + FRAME_HEADER + length;
+                    torn = end > size;
+                    if (!torn) {
+                        frame = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+                        readFully(channel, frame, position + FRAME_HEADER);
+                        if (checksum(length, frame.array(), length) != checksum) {
+                            if (end < size) {
+                                throw new IOException("Сегмент журнала поврежден: " + segment + ", позиция " + position);
+                            }
+                            torn = true;
+                        }
+                    }
+                }
+                if (torn) {
+                    if (!last) {
+                        throw new IOException("Сегмент журнала поврежден: " + segment + ", позиция " + position);
+                    }
+                    channel.truncate(position);
+                    channel.force(true);
+                    break;
+                }
+                frame.flip();
+                while (frame.hasRemaining()) {
+                    apply(frame, graph);
+                }
+                position += FRAME_HEADER + length;
+            }
+            return position - SEGMENT_HEADER;
+        }
+    }
+
+    private static int lengthChecksum(int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(length).flip());
+        return (int) crc.getValue();
+    }
+
+    //сумма кадра покрывает и длину, и записи
+    private static int checksum(int length, byte[] records, int count) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(length).flip());
+        crc.update(records, 0, count);
+        return (int) crc.getValue();
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static void apply(ByteBuffer frame, Graph<String> graph) {
+        byte type = frame.get();
+        String first = getLabel(frame);
+        switch (type) {
+            case ADD_VERTEX:
+                graph.addVertex(first);
+                break;
+            case REMOVE_VERTEX:
+                if (graph.containsVertex(first)) {
+                    graph.removeVertex(first);
+                }
+                break;
+            case ADD_EDGE: {
+                String second = getLabel(frame);
+                int zigzag = getVarint(frame);
+                graph.addVertex(first);
+                graph.addVertex(second);
+                graph.addEdge(first, second, (zigzag >>> 1) ^ -(zigzag & 1));
+                break;
+            }
+            case REMOVE_EDGE: {
+                String second = getLabel(frame);
+                if (graph.containsVertex(first) && graph.containsVertex(second)) {
+                    graph.removeEdge(first, second);
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Неизвестный тип записи журнала: " + type);
+        }
+    }
+
+    private static String getLabel(ByteBuffer frame) {
+        int length = getVarint(frame);
+        String label = new String(frame.array(), frame.arrayOffset() + frame.position(), length, StandardCharsets.UTF_8);
+        frame.position(frame.position() + length);
+        return label;
+    }
+
+    private static int getVarint(ByteBuffer frame) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = frame.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static Path snapshotPath(Path directory, long g) {
+        return directory.resolve(String.format("snapshot-%016d.bin", g));
+    }
+
+    private static Path segmentPath(Path directory, long g) {
+        return directory.resolve(String.format("journal-%016d.log", g));
+    }
+
+    //номера поколений файлов вида prefix<номер>suffix по возрастанию
+    private static long[] generations(Path directory, String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString())
+                .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                .map(name -> name.substring(prefix.length(), name.length() - suffix.length()))
+                .filter(number -> !number.isEmpty() && number.chars().allMatch(Character::isDigit))
+                .mapToLong(Long::parseLong)
+                .sorted()
+                .toArray();
+        }
+    }
+}
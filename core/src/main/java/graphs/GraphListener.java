@@ -0,0 +1,20 @@
+package graphs;
+
+//получает изменения Graph сразу после того, как они применены; все методы необязательные.
+//при удалении вершины сначала приходят edgeRemoved для всех ее ребер, затем vertexRemoved;
+//в это время ребер вершины в графе уже нет, но ее метка еще есть в словаре id.
+//у неориентированного графа ребро сообщается один раз, в том направлении, в каком его передали в Graph
+interface GraphListener<V> {
+    default void vertexAdded(V v) {
+    }
+
+    default void vertexRemoved(V v) {
+    }
+
+    //oldWeight = -1, если ребра раньше не было, иначе это изменение веса
+    default void edgeAdded(V from, V to, int weight, int oldWeight) {
+    }
+
+    default void edgeRemoved(V from, V to, int weight) {
+    }
+}
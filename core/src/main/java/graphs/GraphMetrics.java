@@ -0,0 +1,259 @@
+package graphs;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.*;
+
+//метрики операций Graph: число вызовов и гистограмма времени на каждую операцию, а для поисков еще
+//суммы счетчиков движка (извлеченные вершины, просмотренные ребра, вставки и уменьшения ключа в куче,
+//размер посещенного множества) и самый большой поиск. подключается через Graph.setMetrics;
+//пока метрик нет, граф платит только за проверку поля на null.
+//наружу метрики видны плоским набором "операция.метрика": через JMX (registerMBean) и через MetricsSink
+class GraphMetrics {
+    enum Operation {
+        ADD_VERTEX("addVertex", false),
+        ADD_EDGE("addEdge", false),
+        ADD_EDGES("addEdges", false),
+        REMOVE_VERTEX("removeVertex", false),
+        REMOVE_EDGE("removeEdge", false),
+        FREEZE("freeze", false),
+        DFS("dfs", true),
+        BFS("bfs", true),
+        DIJKSTRA("dijkstra", true),
+        SHORTEST_PATHS("shortestPaths", true),
+        PARALLEL_SHORTEST_PATHS("parallelShortestPaths", true),
+        BIDIRECTIONAL("dijkstraBidirectional", true),
+        A_STAR("aStar", true);
+
+        final String metricName;
+        final boolean search;
+
+        Operation(String metricName, boolean search) {
+            this.metricName = metricName;
+            this.search = search;
+        }
+    }
+
+    private static final class OperationMetrics {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder settled = new LongAdder();
+        final LongAdder relaxed = new LongAdder();
+        final LongAdder pushed = new LongAdder();
+        final LongAdder decreased = new LongAdder();
+        final LongAdder visited = new LongAdder();
+        final LongAccumulator maxVisited = new LongAccumulator(Math::max, 0);
+
+        void reset() {
+            latency.reset();
+            settled.reset();
+            relaxed.reset();
+            pushed.reset();
+            decreased.reset();
+            visited.reset();
+            maxVisited.reset();
+        }
+    }
+
+    private final OperationMetrics[] operations = new OperationMetrics[Operation.values().length];
+    private final List<MetricsSink> sinks = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService publisher;
+
+    GraphMetrics() {
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = new OperationMetrics();
+        }
+    }
+
+    //stats может быть null для операций без движка
+    public void record(Operation operation, long nanos, SearchStats stats) {
+        OperationMetrics metrics = operations[operation.ordinal()];
+        metrics.latency.record(nanos);
+        if (stats != null) {
+            metrics.settled.add(stats.settled);
+            metrics.relaxed.add(stats.relaxed);
+            metrics.pushed.add(stats.pushed);
+            metrics.decreased.add(stats.decreased);
+            metrics.visited.add(stats.visited);
+            metrics.maxVisited.accumulate(stats.visited);
+        }
+    }
+
+    public long calls(Operation operation) {
+        return operations[operation.ordinal()].latency.count();
+    }
+
+    //квантиль времени операции в наносекундах
+    public long latencyPercentile(Operation operation, double percentile) {
+        return operations[operation.ordinal()].latency.percentile(percentile);
+    }
+
+    public void reset() {
+        for (OperationMetrics metrics : operations) {
+            metrics.reset();
+        }
+    }
+
+    //все метрики по имени; операции, которые ни разу не вызывались, пропускаются
+    public SortedMap<String, Long> snapshot() {
+        SortedMap<String, Long> values = new TreeMap<>();
+        for (Operation operation : Operation.values()) {
+            OperationMetrics metrics = operations[operation.ordinal()];
+            if (metrics.latency.count() == 0) {
+                continue;
+            }
+            putAll(values, operation, metrics);
+        }
+        return values;
+    }
+
+    private static void putAll(Map<String, Long> values, Operation operation, OperationMetrics metrics) {
+        String prefix = operation.metricName + ".";
+        LatencyHistogram latency = metrics.latency;
+        values.put(prefix + "calls", latency.count());
+        values.put(prefix + "latencyMeanNanos", Math.round(latency.mean()));
+        values.put(prefix + "latencyP50Nanos", latency.percentile(50));
+        values.put(prefix + "latencyP99Nanos", latency.percentile(99));
+        values.put(prefix + "latencyP999Nanos", latency.percentile(99.9));
+        values.put(prefix + "latencyMaxNanos", latency.max());
+        if (operation.search) {
+            values.put(prefix + "settled", metrics.settled.sum());
+            values.put(prefix + "relaxed", metrics.relaxed.sum());
+            values.put(prefix + "pushed", metrics.pushed.sum());
+            values.put(prefix + "decreased", metrics.decreased.sum());
+            values.put(prefix + "visited", metrics.visited.sum());
+            values.put(prefix + "maxVisited", metrics.maxVisited.get());
+        }
+    }
+
+    public void addSink(MetricsSink sink) {
+        sinks.add(sink);
+    }
+
+    public void removeSink(MetricsSink sink) {
+        sinks.remove(sink);
+    }
+
+    //отдает текущий снимок всем получателям
+    public void publish() {
+        if (sinks.isEmpty()) {
+            return;
+        }
+        Map<String, Long> values = Collections.unmodifiableMap(snapshot());
+        for (MetricsSink sink : sinks) {
+            sink.report(values);
+        }
+    }
+
+    //publish раз в period в фоновом потоке
+    public synchronized void publishEvery(long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Период должен быть положительным");
+        }
+        stopPublishing();
+        publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "graph-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleAtFixedRate(this::publish, period, period, unit);
+    }
+
+    public synchronized void stopPublishing() {
+        if (publisher != null) {
+            publisher.shutdownNow();
+            publisher = null;
+        }
+    }
+
+    //регистрирует метрики в платформенном MBeanServer как graphs:type=GraphMetrics,name=<name>;
+    //каждая метрика - атрибут только для чтения, операция reset их обнуляет
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = new ObjectName("graphs:type=GraphMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MBean(), objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Не удалось зарегистрировать MBean: " + e.getMessage(), e);
+        }
+    }
+
+    public static void unregisterMBean(ObjectName name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Не удалось снять MBean: " + e.getMessage(), e);
+        }
+    }
+
+    //DynamicMBean, а не стандартный: набор атрибутов строится из тех же имен, что и snapshot
+    private final class MBean implements DynamicMBean {
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Long value = allMetrics().get(attribute);
+            if (value == null) {
+                throw new AttributeNotFoundException(attribute);
+            }
+            return value;
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            Map<String, Long> values = allMetrics();
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                Long value = values.get(attribute);
+                if (value != null) {
+                    list.add(new Attribute(attribute, value));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Метрики доступны только для чтения: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+            if ("reset".equals(actionName)) {
+                reset();
+                return null;
+            }
+            throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (String name : allMetrics().keySet()) {
+                attributes.add(new MBeanAttributeInfo(name, "java.lang.Long", name, true, false, false));
+            }
+            MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Обнулить метрики",
+                new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION);
+            return new MBeanInfo(GraphMetrics.class.getName(), "Метрики операций графа",
+                attributes.toArray(new MBeanAttributeInfo[0]), null,
+                new MBeanOperationInfo[]{reset}, null);
+        }
+
+        //в JMX видны и операции без вызовов, чтобы набор атрибутов не менялся со временем
+        private Map<String, Long> allMetrics() {
+            Map<String, Long> values = new TreeMap<>();
+            for (Operation operation : Operation.values()) {
+                putAll(values, operation, operations[operation.ordinal()]);
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package graphs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+//двоичный снимок графа со строковыми метками вершин.
+//заголовок: MAGIC, версия, флаги, число вершин, число ребер, размер словаря в байтах, CRC32C всего, что после заголовка.
+//дальше массивы CSR (offsets, targets, weights), смещения меток и сами метки в UTF-8, все числа little-endian.
+//при загрузке файл отображается в память, а массивы копируются целиком, без разбора по одному числу.
+//снимок пишется во временный файл рядом и переименовывается поверх старого, так что при сбое на диске
+//остается либо старый снимок, либо новый целиком
+class GraphSnapshot {
+    static final int MAGIC = 0x47534E50;
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int FLAG_DIRECTED = 1;
+    private static final long MAX_SEGMENT = 1 << 30;
+
+    private GraphSnapshot() {
+    }
+
+    public static void save(CsrGraph<String> graph, Path file) throws IOException {
+        int n = graph.vertexCount();
+        byte[][] labels = new byte[n][];
+        int[] labelOffsets = new int[n + 1];
+        long dictionaryBytes = 0;
+        for (int i = 0; i < n; i++) {
+            labels[i] = graph.vertexAt(i).getBytes(StandardCharsets.UTF_8);
+            dictionaryBytes += labels[i].length;
+            if (dictionaryBytes > Integer.MAX_VALUE) {
+                throw new IOException("Слишком большой словарь вершин");
+            }
+            labelOffsets[i + 1] = (int) dictionaryBytes;
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        boolean moved = false;
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+                write(channel, graph, labels, labelOffsets, dictionaryBytes);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+            syncDirectory(directory);
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    private static void write(FileChannel channel, CsrGraph<String> graph, byte[][] labels, int[] labelOffsets,
+                              long dictionaryBytes) throws IOException {
+        int n = graph.vertexCount();
+        int m = graph.edgeCount();
+        long pos = HEADER_SIZE;
+        pos = writeInts(channel, pos, graph.offsets);
+        pos = writeInts(channel, pos, graph.targets);
+        pos = writeInts(channel, pos, graph.weights);
+        pos = writeInts(channel, pos, labelOffsets);
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 16);
+        for (byte[] label : labels) {
+            if (chunk.remaining() < label.length) {
+                chunk.flip();
+                pos += writeFully(channel, pos, chunk);
+                chunk = ByteBuffer.allocate(Math.max(1 << 16, label.length));
+            }
+            chunk.put(label);
+        }
+        chunk.flip();
+        writeFully(channel, pos, chunk);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(graph.isDirected() ? FLAG_DIRECTED : 0);
+        header.putInt(n);
+        header.putLong(m);
+        header.putLong(dictionaryBytes);
+        header.putLong(checksum(channel));
+        header.flip();
+        writeFully(channel, 0, header);
+        channel.force(true);
+    }
+
+    //fsync самого каталога, чтобы созданные и переименованные файлы пережили сбой питания.
+    //на Windows каталог нельзя открыть как файл; там это и не нужно
+    static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            //Windows
+        }
+    }
+
+    public static CsrGraph<String> load(Path file) throws IOException {
+        return load(file, true);
+    }
+
+    //verifyChecksum = false пропускает проход по всему файлу ради самого быстрого старта
+    public static CsrGraph<String> load(Path file, boolean verifyChecksum) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Файл не является снимком графа: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Файл не является снимком графа: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия снимка: " + version);
+            }
+            boolean directed = (header.getInt() & FLAG_DIRECTED) != 0;
+            int n = header.getInt();
+            long m = header.getLong();
+            long dictionaryBytes = header.getLong();
+            long expectedChecksum = header.getLong();
+
+            long expectedSize = HEADER_SIZE + 4L * (n + 1) + 8L * m + 4L * (n + 1) + dictionaryBytes;
+            if (n < 0 || m < 0 || m > Integer.MAX_VALUE || channel.size() != expectedSize) {
+                throw new IOException("Снимок поврежден: неверный размер файла");
+            }
+            if (verifyChecksum && checksum(channel) != expectedChecksum) {
+                throw new IOException("Снимок поврежден: не совпадает контрольная сумма");
+            }
+
+            long pos = HEADER_SIZE;
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[(int) m];
+            int[] weights = new int[(int) m];
+            int[] labelOffsets = new int[n + 1];
+            pos = readInts(channel, pos, offsets);
+            pos = readInts(channel, pos, targets);
+            pos = readInts(channel, pos, weights);
+            pos = readInts(channel, pos, labelOffsets);
+            //без контрольной суммы испорченный файл иначе дал бы снимок, на котором алгоритмы падают
+            //или молча выходят за массивы; проверка линейная и намного дешевле самой загрузки
+            validate(offsets, targets, n);
+            validate(labelOffsets, dictionaryBytes);
+            Object[] vertices = readLabels(channel, pos, dictionaryBytes, labelOffsets);
+            return new CsrGraph<>(vertices, offsets, targets, weights, directed);
+        }
+    }
+
+    private static void validate(int[] offsets, int[] targets, int n) throws IOException {
+        validate(offsets, targets.length);
+        for (int target : targets) {
+            if (target < 0 || target >= n) {
+                throw new IOException("Снимок поврежден: ребро ведет в несуществующую вершину " + target);
+            }
+        }
+    }
+
+    //смещения начинаются с нуля, не убывают и заканчиваются на длине массива, который они делят
+    private static void validate(int[] offsets, long length) throws IOException {
+        if (offsets[0] != 0 || offsets[offsets.length - 1] != length) {
+            throw new IOException("Снимок поврежден: неверные смещения");
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            if (offsets[i] < offsets[i - 1]) {
+                throw new IOException("Снимок поврежден: неверные смещения");
+            }
+        }
+    }
+
+    private static Object[] readLabels(FileChannel channel, long pos, long size, int[] labelOffsets) throws IOException {
+        int n = labelOffsets.length - 1;
+        Object[] vertices = new Object[n];
+        if (n == 0) {
+            return vertices;
+        }
+        ByteBuffer dictionary = channel.map(FileChannel.MapMode.READ_ONLY, pos, size);
+        //декодирование меток независимо для каждой вершины, поэтому идет параллельно
+        IntStream.range(0, n).parallel().forEach(i -> {
+            byte[] bytes = new byte[labelOffsets[i + 1] - labelOffsets[i]];
+            dictionary.get(labelOffsets[i], bytes);
+            vertices[i] = new String(bytes, StandardCharsets.UTF_8);
+        });
+        return vertices;
+    }
+
+    private static long readInts(FileChannel channel, long pos, int[] target) throws IOException {
+        int done = 0;
+        while (done < target.length) {
+            int count = (int) Math.min(target.length - done, MAX_SEGMENT / 4);
+            IntBuffer ints = channel.map(FileChannel.MapMode.READ_ONLY, pos, 4L * count)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asIntBuffer();
+            ints.get(target, done, count);
+            done += count;
+            pos += 4L * count;
+        }
+        return pos;
+    }
+
+    private static long writeInts(FileChannel channel, long pos, int[] source) throws IOException {
+        int done = 0;
+        while (done < source.length) {
+            int count = Math.min(source.length - done, 1 << 16);
+            ByteBuffer bytes = ByteBuffer.allocate(4 * count).order(ByteOrder.LITTLE_ENDIAN);
+            bytes.asIntBuffer().put(source, done, count);
+            pos += writeFully(channel, pos, bytes);
+            done += count;
+        }
+        return pos;
+    }
+
+    private static int writeFully(FileChannel channel, long pos, ByteBuffer buffer) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, pos + written);
+        }
+        return written;
+    }
+
+    private static long checksum(FileChannel channel) throws IOException {
+        CRC32C crc = new CRC32C();
+        long size = channel.size();
+        for (long pos = HEADER_SIZE; pos < size; pos += MAX_SEGMENT) {
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAX_SEGMENT, size - pos)));
+        }
+        return crc.getValue();
+    }
+}
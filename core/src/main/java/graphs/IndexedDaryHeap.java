@@ -0,0 +1,131 @@
+package graphs;
+
+import java.util.Arrays;
+
+//d-арная куча по вершинам 0..n-1 с ключами long и настоящим decrease-key:
+//каждая вершина лежит в куче не больше одного раза, позиция хранится в positions
+class IndexedDaryHeap {
+    private static final int ARITY = 4;
+
+    private final int[] heap;
+    private final int[] positions;
+    private final long[] keys;
+    private int size;
+
+    IndexedDaryHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int item) {
+        return positions[item] >= 0;
+    }
+
+    public long key(int item) {
+        return keys[item];
+    }
+
+    public long peekKey() {
+        return keys[heap[0]];
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    //вставляет вершину или уменьшает ее ключ; возвращает false, если новый ключ не меньше текущего
+    public boolean insertOrDecrease(int item, long key) {
+        int pos = positions[item];
+        if (pos < 0) {
+            keys[item] = key;
+            heap[size] = item;
+            positions[item] = size;
+            siftUp(size++);
+            return true;
+        }
+        if (key >= keys[item]) {
+            return false;
+        }
+        keys[item] = key;
+        siftUp(pos);
+        return true;
+    }
+
+    public int poll() {
+        int min = heap[0];
+        positions[min] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    //очистка за O(size), а не за O(capacity)
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int item = heap[pos];
+        long key = keys[item];
+        while (pos > 0) {
+            int parentPos = (pos - 1) / ARITY;
+            int parent = heap[parentPos];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[pos] = parent;
+            positions[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = item;
+        positions[item] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int item = heap[pos];
+        long key = keys[item];
+        while (true) {
+            int first = pos * ARITY + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + ARITY, size);
+            int best = first;
+            long bestKey = keys[heap[first]];
+            for (int c = first + 1; c < last; c++) {
+                long childKey = keys[heap[c]];
+                if (childKey < bestKey) {
+                    best = c;
+                    bestKey = childKey;
+                }
+            }
+            if (bestKey >= key) {
+                break;
+            }
+            int child = heap[best];
+            heap[pos] = child;
+            positions[child] = pos;
+            pos = best;
+        }
+        heap[pos] = item;
+        positions[item] = pos;
+    }
+}
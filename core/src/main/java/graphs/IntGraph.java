@@ -0,0 +1,375 @@
+package graphs;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+//изменяемый граф на примитивах: вершины - целые id от 0 до capacity() - 1, ребра хранятся в массивах int,
+//так что в горячих циклах нет ни упаковки в Integer, ни хеширования меток.
+//метки вершин переводятся в id один раз на входе через VertexDictionary
+class IntGraph {
+    private static final int[] EMPTY = new int[0];
+
+    private final boolean isDirected;
+    private Adjacency[] out = new Adjacency[0];
+    //входящие ребра, только для ориентированного графа
+    private Adjacency[] in;
+    private boolean[] alive = new boolean[0];
+    private int vertexCount;
+    private long edgeCount;
+
+    public IntGraph(boolean isDirected) {
+        this.isDirected = isDirected;
+        this.in = isDirected ? new Adjacency[0] : null;
+    }
+
+    //ребра одной вершины; пока их мало, поиск идет линейно по массиву,
+    //а для вершин большой степени строится индекс "сосед -> позиция в массиве"
+    private static final class Adjacency {
+        private static final int INDEX_THRESHOLD = 16;
+
+        int[] targets = EMPTY;
+        int[] weights = EMPTY;
+        int size;
+        private IntIndex index;
+
+        int find(int to) {
+            if (index != null) {
+                return index.get(to);
+            }
+            for (int i = 0; i < size; i++) {
+                if (targets[i] == to) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        //добавляет ребро или обновляет вес существующего; возвращает true, если ребро новое
+        boolean put(int to, int weight) {
+            int slot = find(to);
+            if (slot >= 0) {
+                weights[slot] = weight;
+                return false;
+            }
+            if (size == targets.length) {
+                int capacity = Math.max(4, size * 2);
+                targets = Arrays.copyOf(targets, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            targets[size] = to;
+            weights[size] = weight;
+            size++;
+            if (index != null) {
+                index.put(to, size - 1);
+            } else if (size > INDEX_THRESHOLD) {
+                index = new IntIndex(size * 2);
+                for (int i = 0; i < size; i++) {
+                    index.put(targets[i], i);
+                }
+            }
+            return true;
+        }
+
+        boolean remove(int to) {
+            int slot = find(to);
+            if (slot < 0) {
+                return false;
+            }
+            if (index == null) {
+                System.arraycopy(targets, slot + 1, targets, slot, size - slot - 1);
+                System.arraycopy(weights, slot + 1, weights, slot, size - slot - 1);
+                size--;
+                return true;
+            }
+            //в индексированном режиме на место удаленного ребра переносим последнее
+            index.remove(to);
+            size--;
+            if (slot != size) {
+                targets[slot] = targets[size];
+                weights[slot] = weights[size];
+                index.put(targets[slot], slot);
+            }
+            if (size < INDEX_THRESHOLD / 2) {
+                index = null;
+            }
+            return true;
+        }
+    }
+
+    //открытая адресация "id соседа -> позиция", удаление со сдвигом назад, без надгробий
+    private static final class IntIndex {
+        private int[] keys;
+        private int[] values;
+        private int size;
+
+        IntIndex(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) * 2;
+            keys = new int[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, -1);
+        }
+
+        private int slot(int key) {
+            int h = key * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & (keys.length - 1);
+        }
+
+        int get(int key) {
+            for (int i = slot(key); keys[i] != -1; i = (i + 1) & (keys.length - 1)) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(int key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+            int i = slot(key);
+            while (keys[i] != -1 && keys[i] != key) {
+                i = (i + 1) & (keys.length - 1);
+            }
+            if (keys[i] == -1) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        void remove(int key) {
+            int mask = keys.length - 1;
+            int i = slot(key);
+            while (keys[i] != key) {
+                if (keys[i] == -1) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = -1;
+            size--;
+            //сдвигаем назад элементы цепочки, которые иначе стали бы недостижимы
+            for (int j = (i + 1) & mask; keys[j] != -1; j = (j + 1) & mask) {
+                int home = slot(keys[j]);
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    keys[j] = -1;
+                    i = j;
+                }
+            }
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, -1);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+    }
+
+    //добавляет вершину с заданным id; возвращает false, если она уже есть
+    public boolean addVertex(int v) {
+        if (v < 0) {
+            throw new IllegalArgumentException("id вершины не может быть отрицательным");
+        }
+        if (v >= alive.length) {
+            int capacity = Math.max(v + 1, alive.length * 2);
+            alive = Arrays.copyOf(alive, capacity);
+            out = Arrays.copyOf(out, capacity);
+            if (isDirected) {
+                in = Arrays.copyOf(in, capacity);
+            }
+        }
+        if (alive[v]) {
+            return false;
+        }
+        alive[v] = true;
+        out[v] = new Adjacency();
+        if (isDirected) {
+            in[v] = new Adjacency();
+        }
+        vertexCount++;
+        return true;
+    }
+
+    public void addEdge(int from, int to, int weight) {
+        requireVertices(from, to);
+        if (out[from].put(to, weight)) {
+            edgeCount++;
+        }
+        if (!isDirected) {
+            if (out[to].put(from, weight)) {
+                edgeCount++;
+            }
+        } else {
+            in[to].put(from, 0);
+        }
+    }
+
+    public boolean removeEdge(int from, int to) {
+        requireVertices(from, to);
+        boolean removed = out[from].remove(to);
+        if (removed) {
+            edgeCount--;
+        }
+        if (!isDirected) {
+            if (out[to].remove(from)) {
+                edgeCount--;
+            }
+        } else if (removed) {
+            in[to].remove(from);
+        }
+        return removed;
+    }
+
+    //трогает только соседей v, а не все ребра графа
+    public void removeVertex(int v) {
+        if (!containsVertex(v)) {
+            throw new IllegalArgumentException("Вершина не существует в графе");
+        }
+        Adjacency outgoing = out[v];
+        edgeCount -= outgoing.size;
+        if (isDirected) {
+            for (int i = 0; i < outgoing.size; i++) {
+                in[outgoing.targets[i]].remove(v);
+            }
+            Adjacency incoming = in[v];
+            for (int i = 0; i < incoming.size; i++) {
+                int from = incoming.targets[i];
+                if (from != v && out[from].remove(v)) {
+                    edgeCount--;
+                }
+            }
+            in[v] = null;
+        } else {
+            for (int i = 0; i < outgoing.size; i++) {
+                int to = outgoing.targets[i];
+                if (to != v && out[to].remove(v)) {
+                    edgeCount--;
+                }
+            }
+        }
+        out[v] = null;
+        alive[v] = false;
+        vertexCount--;
+    }
+
+    public boolean containsVertex(int v) {
+        return v >= 0 && v < alive.length && alive[v];
+    }
+
+    //вес ребра или -1, если ребра нет
+    public int getEdgeWeight(int from, int to) {
+        if (!containsVertex(from)) {
+            return -1;
+        }
+        Adjacency edges = out[from];
+        int slot = edges.find(to);
+        return slot < 0 ? -1 : edges.weights[slot];
+    }
+
+    public int outDegree(int v) {
+        requireVertex(v);
+        return out[v].size;
+    }
+
+    public int inDegree(int v) {
+        requireVertex(v);
+        return isDirected ? in[v].size : out[v].size;
+    }
+
+    //i-й сосед и вес i-го ребра вершины v, 0 <= i < outDegree(v)
+    public int target(int v, int i) {
+        return out[v].targets[i];
+    }
+
+    public int weight(int v, int i) {
+        return out[v].weights[i];
+    }
+
+    //i-я вершина, из которой есть ребро в v, 0 <= i < inDegree(v)
+    public int predecessor(int v, int i) {
+        return isDirected ? in[v].targets[i] : out[v].targets[i];
+    }
+
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    //число записей в списках смежности: у неориентированного графа каждое ребро учитывается дважды
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    //все id вершин меньше этого числа
+    public int capacity() {
+        return alive.length;
+    }
+
+    public boolean isDirected() {
+        return isDirected;
+    }
+
+    //снимок CSR: живые вершины нумеруются подряд в порядке возрастания id.
+    //если index не null, в index[id] записывается номер вершины в снимке (-1 для свободных id)
+    public <V> CsrGraph<V> toCsr(IntFunction<V> label, int[] index) {
+        int n = vertexCount;
+        Object[] vertices = new Object[n];
+        int[] offsets = new int[n + 1];
+        int[] ids = index != null ? index : new int[alive.length];
+        int next = 0;
+        for (int v = 0; v < alive.length; v++) {
+            if (alive[v]) {
+                vertices[next] = label.apply(v);
+                ids[v] = next++;
+            } else {
+                ids[v] = -1;
+            }
+        }
+
+        int[] targets = new int[Math.toIntExact(edgeCount)];
+        int[] weights = new int[targets.length];
+        int e = 0;
+        int i = 0;
+        for (int v = 0; v < alive.length; v++) {
+            if (!alive[v]) {
+                continue;
+            }
+            offsets[i++] = e;
+            Adjacency edges = out[v];
+            for (int k = 0; k < edges.size; k++) {
+                targets[e] = ids[edges.targets[k]];
+                weights[e] = edges.weights[k];
+                e++;
+            }
+        }
+        offsets[n] = e;
+
+        return new CsrGraph<>(vertices, offsets, targets, weights, isDirected);
+    }
+
+    public CsrGraph<Integer> toCsr() {
+        return toCsr(Integer::valueOf, null);
+    }
+
+    private void requireVertex(int v) {
+        if (!containsVertex(v)) {
+            throw new IllegalArgumentException("Вершина не существует в графе");
+        }
+    }
+
+    private void requireVertices(int from, int to) {
+        if (!containsVertex(from) || !containsVertex(to)) {
+            throw new IllegalArgumentException("Обе вершины должны существовать в графе");
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package graphs;
+
+import java.util.Map;
+
+//получатель метрик GraphMetrics: лог, Graphite, Prometheus и т.п.
+//метрики приходят плоским набором "операция.метрика" -> значение, отсортированным по имени
+interface MetricsSink {
+    void report(Map<String, Long> metrics);
+}
@@ -0,0 +1,114 @@
+package graphs;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+//кратчайшие расстояния от многих источников сразу: независимые поиски Дейкстры идут параллельно на общем ForkJoinPool.
+//каждый поток берет себе ShortestPathEngine из общего запаса и возвращает его после своей порции источников,
+//так что буферы и куча переиспользуются между поисками, а не создаются на каждый источник
+class MultiSourceShortestPaths<V> {
+    private final CsrGraph<V> graph;
+    private final ConcurrentLinkedQueue<ShortestPathEngine<V>> engines = new ConcurrentLinkedQueue<>();
+
+    //получает строку расстояний от одного источника. вызывается из разных потоков и в любом порядке источников;
+    //массив distances принадлежит движку и перезаписывается после возврата из accept
+    interface RowSink {
+        void accept(int source, long[] distances);
+    }
+
+    MultiSourceShortestPaths(CsrGraph<V> graph) {
+        this.graph = graph;
+    }
+
+    public CsrGraph<V> graph() {
+        return graph;
+    }
+
+    //матрица sources.length x n в одном массиве long; для всех вершин ее размер n^2, поэтому на больших графах
+    //строки нужно отдавать в RowSink
+    public DistanceMatrix<V> matrix(int[] sources) {
+        int n = graph.vertexCount();
+        if ((long) sources.length * n > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Матрица расстояний слишком велика, используйте построчный вывод");
+        }
+        long[] distances = new long[sources.length * n];
+        ForkJoinPool.commonPool().invoke(new Batch(0, sources.length, grain(sources.length), (i, engine) ->
+            engine.distances(sources[i], distances, i * n)));
+        return new DistanceMatrix<>(graph, sources.clone(), distances);
+    }
+
+    public DistanceMatrix<V> allPairs() {
+        return matrix(allVertices());
+    }
+
+    public void stream(int[] sources, RowSink sink) {
+        int n = graph.vertexCount();
+        ForkJoinPool.commonPool().invoke(new Batch(0, sources.length, grain(sources.length), new Step<V>() {
+            private final ThreadLocal<long[]> rows = ThreadLocal.withInitial(() -> new long[n]);
+
+            @Override
+            public void run(int i, ShortestPathEngine<V> engine) {
+                long[] row = rows.get();
+                engine.distances(sources[i], row, 0);
+                sink.accept(sources[i], row);
+            }
+        }));
+    }
+
+    public void streamAllPairs(RowSink sink) {
+        stream(allVertices(), sink);
+    }
+
+    private int[] allVertices() {
+        int[] all = new int[graph.vertexCount()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        return all;
+    }
+
+    //порции мельче нескольких штук на поток не дают выигрыша в балансировке, а только дробят работу
+    private static int grain(int sources) {
+        return Math.max(1, sources / (ForkJoinPool.getCommonPoolParallelism() * 8));
+    }
+
+    private interface Step<V> {
+        void run(int index, ShortestPathEngine<V> engine);
+    }
+
+    private final class Batch extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final Step<V> step;
+
+        Batch(int from, int to, int grain, Step<V> step) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.step = step;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                ShortestPathEngine<V> engine = engines.poll();
+                if (engine == null) {
+                    engine = new ShortestPathEngine<>(graph);
+                }
+                try {
+                    for (int i = from; i < to; i++) {
+                        step.run(i, engine);
+                    }
+                } finally {
+                    engines.offer(engine);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Batch(from, mid, grain, step), new Batch(mid, to, grain, step));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package graphs;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//поуровневый параллельный BFS на общем ForkJoinPool с переключением направления (direction-optimizing):
+//пока фронт маленький, идем сверху вниз по исходящим ребрам фронта, а когда фронт разрастается,
+//каждая непосещенная вершина сама ищет родителя среди входящих ребер
+class ParallelBfs<V> {
+    //пороги переключения из работы Beamer et al.
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    private static final int TOP_DOWN_GRAIN = 256;
+    private static final int BOTTOM_UP_GRAIN = 4096;
+
+    private final CsrGraph<V> graph;
+    private final CsrGraph<V> reverse;
+
+    ParallelBfs(CsrGraph<V> graph) {
+        this.graph = graph;
+        this.reverse = graph.reverse();
+    }
+
+    public BfsTree<V> run(int source) {
+        int n = graph.vertexCount();
+        int[] depths = new int[n];
+        int[] parents = new int[n];
+        Arrays.fill(depths, -1);
+        Arrays.fill(parents, -1);
+        AtomicLongArray visited = new AtomicLongArray((n + 63) >>> 6);
+
+        mark(visited, source);
+        depths[source] = 0;
+        int[] frontier = {source};
+        long edgesToCheck = graph.edgeCount() - graph.degree(source);
+        boolean bottomUp = false;
+
+        for (int level = 1; frontier.length > 0; level++) {
+            long frontierEdges = 0;
+            for (int v : frontier) {
+                frontierEdges += graph.degree(v);
+            }
+            if (!bottomUp && frontierEdges > edgesToCheck / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontier.length < n / BETA) {
+                bottomUp = false;
+            }
+
+            ConcurrentLinkedQueue<int[]> found = new ConcurrentLinkedQueue<>();
+            if (bottomUp) {
+                long[] frontierBits = new long[(n + 63) >>> 6];
+                for (int v : frontier) {
+                    frontierBits[v >>> 6] |= 1L << v;
+                }
+                ForkJoinPool.commonPool().invoke(
+                    new BottomUpStep(0, n, level, frontierBits, visited, depths, parents, found));
+            } else {
+                ForkJoinPool.commonPool().invoke(
+                    new TopDownStep(frontier, 0, frontier.length, level, visited, depths, parents, found));
+            }
+
+            frontier = concat(found);
+            for (int v : frontier) {
+                edgesToCheck -= graph.degree(v);
+            }
+        }
+        return new BfsTree<>(graph, source, depths, parents);
+    }
+
+    private static int[] concat(Collection<int[]> chunks) {
+        int total = 0;
+        for (int[] chunk : chunks) {
+            total += chunk.length;
+        }
+        int[] result = new int[total];
+        int pos = 0;
+        for (int[] chunk : chunks) {
+            System.arraycopy(chunk, 0, result, pos, chunk.length);
+            pos += chunk.length;
+        }
+        return result;
+    }
+
+    private static boolean isMarked(AtomicLongArray bits, int v) {
+        return (bits.get(v >>> 6) & (1L << v)) != 0;
+    }
+
+    //true, если именно этот поток первым пометил вершину
+    private static boolean mark(AtomicLongArray bits, int v) {
+        int word = v >>> 6;
+        long bit = 1L << v;
+        while (true) {
+            long current = bits.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    //накапливает найденные вершины в локальном буфере, чтобы не трогать общую очередь на каждую вершину
+    private static final class Chunk {
+        int[] items = new int[64];
+        int size;
+
+        void add(int v) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = v;
+        }
+
+        void flushTo(ConcurrentLinkedQueue<int[]> found) {
+            if (size > 0) {
+                found.add(Arrays.copyOf(items, size));
+            }
+        }
+    }
+
+    private final class TopDownStep extends RecursiveAction {
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private final int level;
+        private final AtomicLongArray visited;
+        private final int[] depths;
+        private final int[] parents;
+        private final ConcurrentLinkedQueue<int[]> found;
+
+        TopDownStep(int[] frontier, int from, int to, int level, AtomicLongArray visited,
+                    int[] depths, int[] parents, ConcurrentLinkedQueue<int[]> found) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.level = level;
+            this.visited = visited;
+            this.depths = depths;
+            this.parents = parents;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > TOP_DOWN_GRAIN) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new TopDownStep(frontier, from, mid, level, visited, depths, parents, found),
+                          new TopDownStep(frontier, mid, to, level, visited, depths, parents, found));
+                return;
+            }
+            Chunk next = new Chunk();
+            for (int i = from; i < to; i++) {
+                int u = frontier[i];
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int v = graph.targets[e];
+                    if (!isMarked(visited, v) && mark(visited, v)) {
+                        depths[v] = level;
+                        parents[v] = u;
+                        next.add(v);
+                    }
+                }
+            }
+            next.flushTo(found);
+        }
+    }
+
+    private final class BottomUpStep extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int level;
+        private final long[] frontierBits;
+        private final AtomicLongArray visited;
+        private final int[] depths;
+        private final int[] parents;
+        private final ConcurrentLinkedQueue<int[]> found;
+
+        BottomUpStep(int from, int to, int level, long[] frontierBits, AtomicLongArray visited,
+                     int[] depths, int[] parents, ConcurrentLinkedQueue<int[]> found) {
+            this.from = from;
+            this.to = to;
+            this.level = level;
+            this.frontierBits = frontierBits;
+            this.visited = visited;
+            this.depths = depths;
+            this.parents = parents;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BOTTOM_UP_GRAIN) {
+                //границы кратны 64, чтобы соседние задачи не делили слова битсета
+                int mid = ((from + to) >>> 1) & ~63;
+                if (mid > from) {
+                    invokeAll(new BottomUpStep(from, mid, level, frontierBits, visited, depths, parents, found),
+                              new BottomUpStep(mid, to, level, frontierBits, visited, depths, parents, found));
+                    return;
+                }
+            }
+            Chunk next = new Chunk();
+            for (int v = from; v < to; v++) {
+                if (isMarked(visited, v)) {
+                    continue;
+                }
+                for (int e = reverse.offsets[v]; e < reverse.offsets[v + 1]; e++) {
+                    int u = reverse.targets[e];
+                    if ((frontierBits[u >>> 6] & (1L << u)) != 0) {
+                        mark(visited, v);
+                        depths[v] = level;
+                        parents[v] = u;
+                        next.add(v);
+                        break;
+                    }
+                }
+            }
+            next.flushTo(found);
+        }
+    }
+}
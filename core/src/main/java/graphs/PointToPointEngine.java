@@ -0,0 +1,196 @@
+package graphs;
+
+import java.util.*;
+
+//поиск пути между двумя вершинами: двунаправленный Дейкстра и A*.
+//как и ShortestPathEngine, переиспользует массивы между запросами и не потокобезопасен
+class PointToPointEngine<V> {
+    private static final long INF = ShortestPathTree.UNREACHABLE;
+
+    private final CsrGraph<V> graph;
+    private final CsrGraph<V> reverse;
+    private final IndexedDaryHeap forwardHeap;
+    private final IndexedDaryHeap backwardHeap;
+    private final long[] forwardDist;
+    private final long[] backwardDist;
+    private final int[] forwardParent;
+    private final int[] backwardParent;
+    private final long[] estimates;
+    private final int[] touched;
+    private int touchedCount;
+    private final SearchStats stats = new SearchStats();
+
+    PointToPointEngine(CsrGraph<V> graph) {
+        int n = graph.vertexCount();
+        this.graph = graph;
+        this.reverse = graph.reverse();
+        this.forwardHeap = new IndexedDaryHeap(n);
+        this.backwardHeap = new IndexedDaryHeap(n);
+        this.forwardDist = new long[n];
+        this.backwardDist = new long[n];
+        this.forwardParent = new int[n];
+        this.backwardParent = new int[n];
+        this.estimates = new long[n];
+        this.touched = new int[n];
+        Arrays.fill(forwardDist, INF);
+        Arrays.fill(backwardDist, INF);
+        Arrays.fill(forwardParent, -1);
+        Arrays.fill(backwardParent, -1);
+        Arrays.fill(estimates, -1);
+    }
+
+    public CsrGraph<V> graph() {
+        return graph;
+    }
+
+    //число вершин, извлеченных из куч последним запросом
+    public int settledCount() {
+        return (int) stats.settled;
+    }
+
+    //счетчики последнего запроса
+    public SearchStats stats() {
+        stats.visited = touchedCount;
+        return stats;
+    }
+
+    public java.util.List<V> bidirectional(int source, int target) {
+        reset();
+        if (source == target) {
+            return Collections.singletonList(graph.vertexAt(source));
+        }
+        touch(source);
+        touch(target);
+        forwardDist[source] = 0;
+        backwardDist[target] = 0;
+        forwardHeap.insertOrDecrease(source, 0);
+        backwardHeap.insertOrDecrease(target, 0);
+        stats.pushed += 2;
+
+        long best = INF;
+        int meet = -1;
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()) {
+            if (forwardHeap.peekKey() + backwardHeap.peekKey() >= best) {
+                break;
+            }
+            boolean forward = forwardHeap.size() <= backwardHeap.size();
+            CsrGraph<V> side = forward ? graph : reverse;
+            IndexedDaryHeap heap = forward ? forwardHeap : backwardHeap;
+            long[] dist = forward ? forwardDist : backwardDist;
+            long[] otherDist = forward ? backwardDist : forwardDist;
+            int[] parent = forward ? forwardParent : backwardParent;
+
+            int u = heap.poll();
+            stats.settled++;
+            stats.relaxed += side.offsets[u + 1] - side.offsets[u];
+            long base = dist[u];
+            for (int e = side.offsets[u]; e < side.offsets[u + 1]; e++) {
+                int v = side.targets[e];
+                long candidate = base + side.weights[e];
+                if (candidate < dist[v]) {
+                    countPush(dist[v]);
+                    touch(v);
+                    dist[v] = candidate;
+                    parent[v] = u;
+                    heap.insertOrDecrease(v, candidate);
+                }
+                if (otherDist[v] != INF && dist[v] + otherDist[v] < best) {
+                    best = dist[v] + otherDist[v];
+                    meet = v;
+                }
+            }
+        }
+        forwardHeap.clear();
+        backwardHeap.clear();
+
+        java.util.List<V> path = new ArrayList<>();
+        if (meet == -1) {
+            return path;
+        }
+        for (int at = meet; at != -1; at = forwardParent[at]) {
+            path.add(graph.vertexAt(at));
+        }
+        Collections.reverse(path);
+        for (int at = backwardParent[meet]; at != -1; at = backwardParent[at]) {
+            path.add(graph.vertexAt(at));
+        }
+        return path;
+    }
+
+    //A* с допустимой эвристикой; вершина может быть открыта повторно, если эвристика не монотонна
+    public java.util.List<V> aStar(int source, int target, AStarHeuristic<V> heuristic) {
+        reset();
+        V goal = graph.vertexAt(target);
+        touch(source);
+        forwardDist[source] = 0;
+        forwardHeap.insertOrDecrease(source, estimate(source, goal, heuristic));
+        stats.pushed++;
+
+        while (!forwardHeap.isEmpty()) {
+            int u = forwardHeap.poll();
+            stats.settled++;
+            if (u == target) {
+                break;
+            }
+            stats.relaxed += graph.offsets[u + 1] - graph.offsets[u];
+            long base = forwardDist[u];
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                long candidate = base + graph.weights[e];
+                if (candidate < forwardDist[v]) {
+                    countPush(forwardDist[v]);
+                    touch(v);
+                    forwardDist[v] = candidate;
+                    forwardParent[v] = u;
+                    forwardHeap.insertOrDecrease(v, candidate + estimate(v, goal, heuristic));
+                }
+            }
+        }
+        forwardHeap.clear();
+
+        java.util.List<V> path = new ArrayList<>();
+        if (forwardDist[target] == INF) {
+            return path;
+        }
+        for (int at = target; at != -1; at = forwardParent[at]) {
+            path.add(graph.vertexAt(at));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private long estimate(int v, V goal, AStarHeuristic<V> heuristic) {
+        if (estimates[v] < 0) {
+            estimates[v] = Math.max(0, heuristic.estimate(graph.vertexAt(v), goal));
+        }
+        return estimates[v];
+    }
+
+    //вершина с уже известным расстоянием либо лежит в куче, либо открывается повторно
+    private void countPush(long oldDistance) {
+        if (oldDistance == INF) {
+            stats.pushed++;
+        } else {
+            stats.decreased++;
+        }
+    }
+
+    private void touch(int v) {
+        if (forwardDist[v] == INF && backwardDist[v] == INF) {
+            touched[touchedCount++] = v;
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            int v = touched[i];
+            forwardDist[v] = INF;
+            backwardDist[v] = INF;
+            forwardParent[v] = -1;
+            backwardParent[v] = -1;
+            estimates[v] = -1;
+        }
+        touchedCount = 0;
+        stats.clear();
+    }
+}
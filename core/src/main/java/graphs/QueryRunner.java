@@ -0,0 +1,204 @@
+package graphs;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+//выполняет запросы к графу в фоновых потоках, чтобы интерфейс не зависал.
+//запрос пишет результат по частям в свой буфер, а таймер в потоке Swing раз в FLUSH_MILLIS
+//забирает накопленное из всех буферов и отдает одной строкой в sink.
+//запросы работают по неизменяемому снимку CsrGraph, поэтому несколько из них могут идти одновременно
+class QueryRunner {
+    private static final int FLUSH_MILLIS = 100;
+    //дальше этого вывод одного запроса обрезается, сам запрос продолжает работу
+    private static final int MAX_OUTPUT_CHARS = 100_000;
+
+    private final Consumer<String> sink;
+    private final ExecutorService pool;
+    private final ScheduledExecutorService timeouts;
+    private final Set<Task> running = ConcurrentHashMap.newKeySet();
+    //задачи, у которых в буфере еще может что-то остаться
+    private final Set<Task> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    //запрос: получает Output, в который пишет результат и через который проверяет отмену
+    interface Query {
+        void run(Output out) throws Exception;
+    }
+
+    QueryRunner(Consumer<String> sink) {
+        this.sink = sink;
+        AtomicInteger threads = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread thread = new Thread(r, "graph-query-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeouts = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "graph-query-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Timer timer = new Timer(FLUSH_MILLIS, e -> flush());
+        timer.start();
+    }
+
+    //запускает запрос; timeoutMillis <= 0 - без ограничения времени
+    public Task submit(String title, Query query, long timeoutMillis) {
+        Task task = new Task(nextId.getAndIncrement(), title);
+        running.add(task);
+        pool.execute(() -> execute(task, query));
+        if (timeoutMillis > 0) {
+            task.timeout = timeouts.schedule(() -> task.cancel("превышено время ожидания"),
+                                             timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return task;
+    }
+
+    public void cancelAll() {
+        for (Task task : running) {
+            task.cancel("отменено");
+        }
+    }
+
+    public int runningCount() {
+        return running.size();
+    }
+
+    private void execute(Task task, Query query) {
+        Output out = task.output;
+        //прерывание, оставшееся от отмены предыдущей задачи этого потока, к новой не относится
+        Thread.interrupted();
+        synchronized (task) {
+            task.worker = Thread.currentThread();
+        }
+        try {
+            out.checkCancelled();
+            query.run(out);
+            out.finish(null);
+        } catch (CancellationException e) {
+            out.finish(task.cancelReason);
+        } catch (Exception e) {
+            out.finish(task.cancelReason != null ? task.cancelReason : "ошибка: " + e.getMessage());
+        } finally {
+            synchronized (task) {
+                task.worker = null;
+            }
+            if (task.timeout != null) {
+                task.timeout.cancel(false);
+            }
+            running.remove(task);
+            //завершение показываем сразу, не дожидаясь таймера
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+    //вызывается в потоке Swing
+    private void flush() {
+        StringBuilder text = new StringBuilder();
+        for (Task task : pending) {
+            task.output.drainTo(text);
+        }
+        if (text.length() > 0) {
+            sink.accept(text.toString());
+        }
+    }
+
+    final class Task {
+        final int id;
+        final String title;
+        final Output output;
+        private Thread worker;
+        private volatile ScheduledFuture<?> timeout;
+        private volatile String cancelReason;
+
+        private Task(int id, String title) {
+            this.id = id;
+            this.title = title;
+            this.output = new Output(this);
+            pending.add(this);
+        }
+
+        public void cancel() {
+            cancel("отменено");
+        }
+
+        private void cancel(String reason) {
+            if (cancelReason == null) {
+                cancelReason = reason;
+            }
+            //задача, еще ждущая потока, увидит отмену при запуске
+            synchronized (this) {
+                if (worker != null) {
+                    worker.interrupt();
+                }
+            }
+        }
+
+        public boolean isDone() {
+            return !running.contains(this);
+        }
+    }
+
+    final class Output {
+        private final Task task;
+        private final StringBuilder buffer = new StringBuilder();
+        private int written;
+        private boolean truncated;
+        private boolean finished;
+        private String status;
+
+        private Output(Task task) {
+            this.task = task;
+        }
+
+        public void append(String text) {
+            checkCancelled();
+            synchronized (buffer) {
+                if (truncated) {
+                    return;
+                }
+                if (written + text.length() > MAX_OUTPUT_CHARS) {
+                    buffer.append(" … (вывод сокращен)");
+                    truncated = true;
+                    return;
+                }
+                buffer.append(text);
+                written += text.length();
+            }
+        }
+
+        //бросает CancellationException, если запрос отменен или истекло его время;
+        //долгие алгоритмы вызывают ее по ходу работы
+        public void checkCancelled() {
+            if (task.cancelReason != null || Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+        }
+
+        private void finish(String status) {
+            synchronized (buffer) {
+                finished = true;
+                this.status = status;
+            }
+        }
+
+        private void drainTo(StringBuilder text) {
+            synchronized (buffer) {
+                if (buffer.length() > 0) {
+                    text.append(" #").append(task.id).append(' ').append(task.title).append(": ")
+                        .append(buffer).append('\n');
+                    buffer.setLength(0);
+                }
+                if (finished) {
+                    text.append(" #").append(task.id).append(' ').append(task.title).append(' ')
+                        .append(status == null ? "завершен" : status).append('\n');
+                    pending.remove(task);
+                }
+            }
+        }
+    }
+}
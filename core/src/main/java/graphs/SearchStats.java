@@ -0,0 +1,24 @@
+package graphs;
+
+//счетчики работы одного запроса движка; движок обнуляет их в начале каждого запроса
+//и увеличивает простыми полями, поэтому они почти ничего не стоят, даже если никто их не читает
+final class SearchStats {
+    //вершины, извлеченные из кучи или очереди
+    long settled;
+    //просмотренные ребра
+    long relaxed;
+    //вершины, впервые попавшие в кучу или очередь
+    long pushed;
+    //повторные попадания: уменьшение ключа или повторное открытие вершины в A*
+    long decreased;
+    //вершины, до которых дошел поиск
+    long visited;
+
+    void clear() {
+        settled = 0;
+        relaxed = 0;
+        pushed = 0;
+        decreased = 0;
+        visited = 0;
+    }
+}
@@ -0,0 +1,264 @@
+package graphs;
+
+import java.util.*;
+
+//кеш деревьев кратчайших путей перед движком Дейкстры: повторный запрос от того же источника
+//отвечается по готовому дереву без поиска. деревья вытесняются по LRU, каждое помечено версией графа.
+//в грубом режиме любое изменение графа делает все деревья устаревшими; в точном режиме кеш подписывается
+//на изменения и выбрасывает только деревья, расстояния в которых могли поменяться:
+//новое или подешевевшее ребро u -> v - если оно улучшает расстояние до v, удаленное или подорожавшее -
+//если оно ребро дерева. остальные деревья остаются верными для нового графа.
+//расстояния и родители хранятся по id словаря графа, а не по номерам снимка: дерево не держит свой снимок,
+//и проверки в слушателе не строят словарь меток снимка. id удаленной вершины может достаться новой, но
+//в уцелевших деревьях он уже недостижим: ребро дерева к удаленной вершине удаляется раньше нее.
+//кеш в точном режиме подписан на граф, поэтому ненужный кеш закрывают (close).
+//как и Graph, не рассчитан на одновременную работу из нескольких потоков
+class ShortestPathCache<V> {
+    private final Graph<V> graph;
+    private final int capacity;
+    private final LinkedHashMap<V, Entry> trees;
+    private final Invalidator invalidator;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    //дерево по id словаря; вершины с id за концом массивов добавлены позже и недостижимы
+    private static final class Entry {
+        final long[] distances;
+        final int[] parents;
+        long version;
+
+        Entry(long[] distances, int[] parents, long version) {
+            this.distances = distances;
+            this.parents = parents;
+            this.version = version;
+        }
+
+        long distance(int id) {
+            return id < distances.length ? distances[id] : ShortestPathTree.UNREACHABLE;
+        }
+
+        int parent(int id) {
+            return id < parents.length ? parents[id] : -1;
+        }
+    }
+
+    ShortestPathCache(Graph<V> graph, int capacity, boolean fineGrained) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер кеша должен быть положительным");
+        }
+        this.graph = graph;
+        this.capacity = capacity;
+        this.trees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<V, Entry> eldest) {
+                if (size() > ShortestPathCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.invalidator = fineGrained ? new Invalidator() : null;
+        if (fineGrained) {
+            graph.addListener(invalidator);
+        }
+    }
+
+    ShortestPathCache(Graph<V> graph, int capacity) {
+        this(graph, capacity, true);
+    }
+
+    //то же, что Graph.dijkstra
+    public java.util.List<V> path(V from, V to) {
+        int target = requireBoth(from, to);
+        Entry tree = tree(from);
+        java.util.List<V> path = new ArrayList<>();
+        if (tree.distance(target) == ShortestPathTree.UNREACHABLE) {
+            return path;
+        }
+        VertexDictionary<V> dictionary = graph.dictionary();
+        for (int at = target; at != -1; at = tree.parent(at)) {
+            path.add(dictionary.label(at));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    public long distance(V from, V to) {
+        int target = requireBoth(from, to);
+        return tree(from).distance(target);
+    }
+
+    private int requireBoth(V from, V to) {
+        int target = graph.dictionary().id(to);
+        if (!graph.containsVertex(from) || target < 0) {
+            throw new IllegalArgumentException("Вершины должны существовать в графе");
+        }
+        return target;
+    }
+
+    //полное дерево от source; при попадании возвращается сохраненное
+    private Entry tree(V source) {
+        Entry entry = trees.get(source);
+        if (entry != null && entry.version == graph.version()) {
+            hits++;
+            return entry;
+        }
+        misses++;
+        entry = byDictionaryId(graph.shortestPaths(source));
+        trees.put(source, entry);
+        return entry;
+    }
+
+    //перекладывает дерево из номеров снимка в id словаря; снимок после этого дереву не нужен
+    private Entry byDictionaryId(ShortestPathTree<V> tree) {
+        VertexDictionary<V> dictionary = graph.dictionary();
+        int capacity = dictionary.capacity();
+        long[] distances = new long[capacity];
+        int[] parents = new int[capacity];
+        Arrays.fill(distances, ShortestPathTree.UNREACHABLE);
+        Arrays.fill(parents, -1);
+        //номер снимка -> id словаря
+        int[] ids = new int[tree.graph().vertexCount()];
+        for (int id = 0; id < capacity; id++) {
+            V label = dictionary.label(id);
+            if (label != null) {
+                int s = graph.snapshotId(label, "Вершина не существует в графе");
+                ids[s] = id;
+                distances[id] = tree.distance(s);
+            }
+        }
+        for (int s = 0; s < ids.length; s++) {
+            int parent = tree.parent(s);
+            if (parent >= 0) {
+                parents[ids[s]] = ids[parent];
+            }
+        }
+        return new Entry(distances, parents, graph.version());
+    }
+
+    //отписывает кеш от графа и очищает его; дальше кеш пользоваться нельзя
+    public void close() {
+        if (invalidator != null) {
+            graph.removeListener(invalidator);
+        }
+        trees.clear();
+    }
+
+    public void clear() {
+        trees.clear();
+    }
+
+    public int size() {
+        return trees.size();
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    public long evictions() {
+        return evictions;
+    }
+
+    //деревья, выброшенные из-за изменений графа (только в точном режиме)
+    public long invalidations() {
+        return invalidations;
+    }
+
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("деревьев: %d/%d, попаданий: %d, промахов: %d (%.1f%%), вытеснено: %d, сброшено: %d",
+                             trees.size(), capacity, hits, misses, hitRate() * 100, evictions, invalidations);
+    }
+
+    private final class Invalidator implements GraphListener<V> {
+        //версия графа, для которой деревья в кеше последний раз проверялись; пакетные изменения
+        //(addEdges, removeVertex) меняют версию один раз, а событий присылают много
+        private long checkedVersion = graph.version();
+
+        @Override
+        public void vertexRemoved(V v) {
+            //путей через v в сохраненных деревьях уже нет: ребро дерева к v было удалено раньше
+            if (trees.remove(v) != null) {
+                invalidations++;
+            }
+            revalidate();
+        }
+
+        @Override
+        public void vertexAdded(V v) {
+            revalidate();
+        }
+
+        @Override
+        public void edgeAdded(V from, V to, int weight, int oldWeight) {
+            if (oldWeight >= 0 && weight > oldWeight) {
+                drop(tree -> usesEdge(tree, from, to));
+            } else if (oldWeight < 0 || weight < oldWeight) {
+                drop(tree -> improves(tree, from, to, weight));
+            } else {
+                revalidate();
+            }
+        }
+
+        @Override
+        public void edgeRemoved(V from, V to, int weight) {
+            drop(tree -> usesEdge(tree, from, to));
+        }
+
+        private boolean improves(Entry tree, V from, V to, int weight) {
+            int u = graph.dictionary().id(from);
+            int v = graph.dictionary().id(to);
+            return improves(tree, u, v, weight) || !graph.isDirected() && improves(tree, v, u, weight);
+        }
+
+        private boolean improves(Entry tree, int u, int v, int weight) {
+            if (u < 0 || tree.distance(u) == ShortestPathTree.UNREACHABLE) {
+                return false;
+            }
+            long through = tree.distance(u) + weight;
+            return v < 0 || through < tree.distance(v);
+        }
+
+        private boolean usesEdge(Entry tree, V from, V to) {
+            int u = graph.dictionary().id(from);
+            int v = graph.dictionary().id(to);
+            if (u < 0 || v < 0) {
+                return false;
+            }
+            return tree.parent(v) == u || !graph.isDirected() && tree.parent(u) == v;
+        }
+
+        private void drop(java.util.function.Predicate<Entry> affected) {
+            Iterator<Entry> it = trees.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                boolean current = entry.version == checkedVersion || entry.version == graph.version();
+                if (current && !affected.test(entry)) {
+                    entry.version = graph.version();
+                } else {
+                    it.remove();
+                    invalidations++;
+                }
+            }
+            checkedVersion = graph.version();
+        }
+
+        //изменение не затронуло ни одного дерева
+        private void revalidate() {
+            drop(tree -> false);
+        }
+    }
+}
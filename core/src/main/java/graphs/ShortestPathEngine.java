@@ -0,0 +1,160 @@
+package graphs;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+//Дейкстра по снимку CsrGraph на индексированной куче; расстояния в long, поэтому сумма весов не переполняется.
+//массивы переиспользуются между запросами и сбрасываются только в затронутых вершинах,
+//поэтому один экземпляр нельзя использовать из нескольких потоков одновременно.
+//поиск в фоновом потоке отменяется прерыванием потока: раз в CANCEL_CHECK извлеченных вершин движок
+//проверяет флаг и бросает CancellationException
+class ShortestPathEngine<V> {
+    private static final int CANCEL_CHECK = 1024;
+
+    private final CsrGraph<V> graph;
+    private final IndexedDaryHeap heap;
+    private final long[] distances;
+    private final int[] parents;
+    private final int[] touched;
+    private int touchedCount;
+    private final SearchStats stats = new SearchStats();
+
+    ShortestPathEngine(CsrGraph<V> graph) {
+        int n = graph.vertexCount();
+        this.graph = graph;
+        this.heap = new IndexedDaryHeap(n);
+        this.distances = new long[n];
+        this.parents = new int[n];
+        this.touched = new int[n];
+        Arrays.fill(distances, ShortestPathTree.UNREACHABLE);
+        Arrays.fill(parents, -1);
+    }
+
+    public CsrGraph<V> graph() {
+        return graph;
+    }
+
+    //счетчики последнего запроса
+    public SearchStats stats() {
+        stats.visited = touchedCount;
+        return stats;
+    }
+
+    public java.util.List<V> path(int source, int target) {
+        reset();
+        run(source, target);
+        java.util.List<V> path = new ArrayList<>();
+        if (distances[target] == ShortestPathTree.UNREACHABLE) {
+            return path;
+        }
+        for (int at = target; at != -1; at = parents[at]) {
+            path.add(graph.vertexAt(at));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    //полное дерево кратчайших путей за один проход
+    public ShortestPathTree<V> tree(int source) {
+        reset();
+        run(source, -1);
+        return snapshot(source);
+    }
+
+    //расстояния от source до всех вершин в out[offset..offset + n), без копии дерева
+    void distances(int source, long[] out, int offset) {
+        reset();
+        run(source, -1);
+        System.arraycopy(distances, 0, out, offset, distances.length);
+    }
+
+    //один-ко-многим: поиск останавливается, как только все цели окончательно посчитаны;
+    //расстояния до остальных вершин в таком дереве могут быть неокончательными
+    public ShortestPathTree<V> tree(int source, int[] targets) {
+        reset();
+        int remaining = 0;
+        boolean[] wanted = new boolean[graph.vertexCount()];
+        for (int t : targets) {
+            if (!wanted[t]) {
+                wanted[t] = true;
+                remaining++;
+            }
+        }
+        try {
+            relax(source, 0, -1);
+            while (!heap.isEmpty() && remaining > 0) {
+                int current = heap.poll();
+                settle();
+                if (wanted[current]) {
+                    remaining--;
+                }
+                scan(current);
+            }
+        } finally {
+            heap.clear();
+        }
+        return snapshot(source);
+    }
+
+    //после отмены куча очищается, а остальные массивы сбросит reset следующего запроса
+    private void run(int source, int target) {
+        try {
+            relax(source, 0, -1);
+            while (!heap.isEmpty()) {
+                int current = heap.poll();
+                settle();
+                if (current == target) {
+                    break;
+                }
+                scan(current);
+            }
+        } finally {
+            heap.clear();
+        }
+    }
+
+    private void settle() {
+        if (++stats.settled % CANCEL_CHECK == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Поиск кратчайшего пути прерван");
+        }
+    }
+
+    private void scan(int current) {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] weights = graph.weights;
+        long base = distances[current];
+        stats.relaxed += offsets[current + 1] - offsets[current];
+        for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+            relax(targets[e], base + weights[e], current);
+        }
+    }
+
+    private void relax(int v, long distance, int parent) {
+        if (distance >= distances[v]) {
+            return;
+        }
+        if (distances[v] == ShortestPathTree.UNREACHABLE) {
+            touched[touchedCount++] = v;
+            stats.pushed++;
+        } else {
+            stats.decreased++;
+        }
+        distances[v] = distance;
+        parents[v] = parent;
+        heap.insertOrDecrease(v, distance);
+    }
+
+    private ShortestPathTree<V> snapshot(int source) {
+        return new ShortestPathTree<>(graph, source, distances.clone(), parents.clone());
+    }
+
+    private void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            distances[touched[i]] = ShortestPathTree.UNREACHABLE;
+            parents[touched[i]] = -1;
+        }
+        touchedCount = 0;
+        stats.clear();
+    }
+}
@@ -0,0 +1,58 @@
+package graphs;
+
+import java.util.*;
+
+//дерево кратчайших путей от одного источника, индексированное id вершин снимка
+class ShortestPathTree<V> {
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private final CsrGraph<V> graph;
+    private final int source;
+    private final long[] distances;
+    private final int[] parents;
+
+    ShortestPathTree(CsrGraph<V> graph, int source, long[] distances, int[] parents) {
+        this.graph = graph;
+        this.source = source;
+        this.distances = distances;
+        this.parents = parents;
+    }
+
+    public V source() {
+        return graph.vertexAt(source);
+    }
+
+    public CsrGraph<V> graph() {
+        return graph;
+    }
+
+    //UNREACHABLE, если вершина недостижима или еще не была достигнута при ограниченном поиске
+    public long distance(V v) {
+        return distances[graph.requireVertex(v, "Вершина не существует в графе")];
+    }
+
+    public long distance(int id) {
+        return distances[id];
+    }
+
+    public int parent(int id) {
+        return parents[id];
+    }
+
+    public boolean hasPathTo(V v) {
+        return distance(v) != UNREACHABLE;
+    }
+
+    public java.util.List<V> pathTo(V v) {
+        int target = graph.requireVertex(v, "Вершина не существует в графе");
+        java.util.List<V> path = new ArrayList<>();
+        if (distances[target] == UNREACHABLE) {
+            return path;
+        }
+        for (int at = target; at != -1; at = parents[at]) {
+            path.add(graph.vertexAt(at));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
@@ -0,0 +1,110 @@
+package graphs;
+
+import java.util.*;
+
+//компоненты сильной связности снимка алгоритмом Тарьяна без рекурсии: стек вызовов хранится в массивах
+//(вершина и позиция в ее списке ребер), поэтому глубокие графы не переполняют стек потока.
+//компоненты нумеруются в порядке завершения, то есть в обратном топологическом порядке графа компонент.
+//для неориентированного снимка это обычные компоненты связности
+class StronglyConnectedComponents<V> {
+    private final CsrGraph<V> graph;
+    private final int[] components;
+    private final int count;
+
+    StronglyConnectedComponents(CsrGraph<V> graph) {
+        this.graph = graph;
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callVertex = new int[n];
+        int[] callEdge = new int[n];
+        components = new int[n];
+        Arrays.fill(index, -1);
+
+        int nextIndex = 0;
+        int stackSize = 0;
+        int components = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            int depth = 0;
+            callVertex[0] = root;
+            callEdge[0] = offsets[root];
+            index[root] = low[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while (depth >= 0) {
+                int v = callVertex[depth];
+                if (callEdge[depth] < offsets[v + 1]) {
+                    int w = targets[callEdge[depth]++];
+                    if (index[w] == -1) {
+                        index[w] = low[w] = nextIndex++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        depth++;
+                        callVertex[depth] = w;
+                        callEdge[depth] = offsets[w];
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                //все ребра v просмотрены: возвращаемся к вызвавшей вершине
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        onStack[w] = false;
+                        this.components[w] = components;
+                    } while (w != v);
+                    components++;
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callVertex[depth];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+        this.count = components;
+    }
+
+    public CsrGraph<V> graph() {
+        return graph;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    //номер компоненты вершины с id снимка
+    public int component(int id) {
+        return components[id];
+    }
+
+    public int component(V v) {
+        return components[graph.requireVertex(v, "Вершина не существует в графе")];
+    }
+
+    public boolean sameComponent(V a, V b) {
+        return component(a) == component(b);
+    }
+
+    //вершины каждой компоненты
+    public java.util.List<java.util.List<V>> members() {
+        java.util.List<java.util.List<V>> members = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            members.add(new ArrayList<>());
+        }
+        for (int v = 0; v < components.length; v++) {
+            members.get(components[v]).add(graph.vertexAt(v));
+        }
+        return members;
+    }
+}
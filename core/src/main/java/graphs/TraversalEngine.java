@@ -0,0 +1,157 @@
+package graphs;
+
+import java.util.Arrays;
+
+//итеративные DFS/BFS по снимку CsrGraph; буферы переиспользуются между запусками,
+//поэтому один экземпляр нельзя использовать из нескольких потоков одновременно
+class TraversalEngine<V> {
+    private final CsrGraph<V> graph;
+    private final long[] visited;
+    private final int[] stack;
+    private final int[] cursor;
+    private final int[] order;
+    private final SearchStats stats = new SearchStats();
+
+    TraversalEngine(CsrGraph<V> graph) {
+        int n = graph.vertexCount();
+        this.graph = graph;
+        this.visited = new long[(n + 63) >>> 6];
+        this.stack = new int[n];
+        this.cursor = new int[n];
+        this.order = new int[n];
+    }
+
+    public CsrGraph<V> graph() {
+        return graph;
+    }
+
+    //счетчики последнего обхода
+    public SearchStats stats() {
+        return stats;
+    }
+
+    public int[] dfsOrder(int start) {
+        return Arrays.copyOf(order, dfs(start, null));
+    }
+
+    public int[] bfsOrder(int start) {
+        return Arrays.copyOf(order, bfs(start, null));
+    }
+
+    //возвращает число посещенных вершин; visitor может быть null
+    public int dfs(int start, TraversalVisitor<V> visitor) {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int count = 0;
+        int top = 0;
+
+        //reset в finally: исключение из visitor не должно оставить битсет грязным для следующего обхода
+        try {
+            stack[0] = start;
+            cursor[0] = offsets[start];
+            stats.clear();
+            mark(start);
+            order[count++] = start;
+            if (visitor != null) {
+                visitor.preVisit(graph.vertexAt(start));
+            }
+
+            while (top >= 0) {
+                int current = stack[top];
+                int e = cursor[top];
+                if (e == offsets[current + 1]) {
+                    top--;
+                    if (visitor != null) {
+                        visitor.postVisit(graph.vertexAt(current));
+                    }
+                    continue;
+                }
+                cursor[top] = e + 1;
+                int next = targets[e];
+                if (isMarked(next)) {
+                    if (visitor != null) {
+                        visitor.nonTreeEdge(graph.vertexAt(current), graph.vertexAt(next), graph.weights[e]);
+                    }
+                    continue;
+                }
+                mark(next);
+                order[count++] = next;
+                if (visitor != null) {
+                    visitor.treeEdge(graph.vertexAt(current), graph.vertexAt(next), graph.weights[e]);
+                    visitor.preVisit(graph.vertexAt(next));
+                }
+                top++;
+                stack[top] = next;
+                cursor[top] = offsets[next];
+            }
+        } finally {
+            reset(count);
+        }
+        return count;
+    }
+
+    //возвращает число посещенных вершин; visitor может быть null
+    public int bfs(int start, TraversalVisitor<V> visitor) {
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        int[] queue = order;
+        int head = 0;
+        int tail = 0;
+
+        try {
+            stats.clear();
+            mark(start);
+            queue[tail++] = start;
+            while (head < tail) {
+                int current = queue[head++];
+                if (visitor != null) {
+                    visitor.preVisit(graph.vertexAt(current));
+                }
+                for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+                    int next = targets[e];
+                    if (isMarked(next)) {
+                        if (visitor != null) {
+                            visitor.nonTreeEdge(graph.vertexAt(current), graph.vertexAt(next), graph.weights[e]);
+                        }
+                        continue;
+                    }
+                    mark(next);
+                    queue[tail++] = next;
+                    if (visitor != null) {
+                        visitor.treeEdge(graph.vertexAt(current), graph.vertexAt(next), graph.weights[e]);
+                    }
+                }
+                if (visitor != null) {
+                    visitor.postVisit(graph.vertexAt(current));
+                }
+            }
+        } finally {
+            reset(tail);
+        }
+        return tail;
+    }
+
+    private void mark(int v) {
+        visited[v >>> 6] |= 1L << v;
+    }
+
+    private boolean isMarked(int v) {
+        return (visited[v >>> 6] & (1L << v)) != 0;
+    }
+
+    //очищаем только те слова битсета, которые затронул обход. заодно заполняем счетчики:
+    //обход просматривает все ребра каждой посещенной вершины, так что в самом цикле считать нечего
+    private void reset(int count) {
+        int[] offsets = graph.offsets;
+        long edges = 0;
+        for (int i = 0; i < count; i++) {
+            int v = order[i];
+            visited[v >>> 6] = 0;
+            edges += offsets[v + 1] - offsets[v];
+        }
+        stats.settled = count;
+        stats.pushed = count;
+        stats.visited = count;
+        stats.relaxed = edges;
+    }
+}
@@ -0,0 +1,189 @@
+package graphs;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+//ленивый DFS/BFS по снимку CsrGraph: вершины отдаются в том же порядке, что у TraversalEngine,
+//но граф просматривается только по мере вызовов next. ребра вершины BFS раскрывает не когда отдает ее,
+//а при следующем запросе, поэтому "первые k вершин" стоят раскрытия k - 1 вершин.
+//посещенные вершины лежат в хеш-множестве, а не в битсете на весь граф, так что и память, и время
+//пропорциональны пройденной части, а не размеру графа
+class TraversalIterator<V> implements Iterator<V> {
+    private final CsrGraph<V> graph;
+    private final boolean depthFirst;
+    private final VisitedSet visited = new VisitedSet();
+    //очередь BFS или стек DFS
+    private int[] vertices = new int[16];
+    //для DFS: следующее непросмотренное ребро вершины на стеке
+    private int[] cursor;
+    private int head;
+    private int size;
+    //BFS: отданная, но еще не раскрытая вершина
+    private int pending = -1;
+    //DFS: найденная, но еще не отданная вершина
+    private int found = -1;
+
+    private TraversalIterator(CsrGraph<V> graph, int start, boolean depthFirst) {
+        this.graph = graph;
+        this.depthFirst = depthFirst;
+        visited.add(start);
+        if (depthFirst) {
+            cursor = new int[16];
+            found = start;
+        } else {
+            vertices[size++] = start;
+        }
+    }
+
+    static <V> TraversalIterator<V> bfs(CsrGraph<V> graph, int start) {
+        return new TraversalIterator<>(graph, start, false);
+    }
+
+    static <V> TraversalIterator<V> dfs(CsrGraph<V> graph, int start) {
+        return new TraversalIterator<>(graph, start, true);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return depthFirst ? advanceDepthFirst() : advanceBreadthFirst();
+    }
+
+    @Override
+    public V next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int v;
+        if (depthFirst) {
+            v = found;
+            found = -1;
+            push(v);
+        } else {
+            v = vertices[head++];
+            pending = v;
+        }
+        return graph.vertexAt(v);
+    }
+
+    //сколько вершин уже достигнуто (отданные и ожидающие в очереди)
+    public int reached() {
+        return visited.size();
+    }
+
+    private boolean advanceBreadthFirst() {
+        if (pending >= 0) {
+            int[] offsets = graph.offsets;
+            int[] targets = graph.targets;
+            for (int e = offsets[pending]; e < offsets[pending + 1]; e++) {
+                int next = targets[e];
+                if (visited.add(next)) {
+                    if (size == vertices.length) {
+                        compact();
+                    }
+                    vertices[size++] = next;
+                }
+            }
+            pending = -1;
+        }
+        return head < size;
+    }
+
+    //очередь сдвигается к началу, когда отданные вершины занимают больше половины массива
+    private void compact() {
+        if (head * 2 >= vertices.length) {
+            System.arraycopy(vertices, head, vertices, 0, size - head);
+            size -= head;
+            head = 0;
+        } else {
+            vertices = Arrays.copyOf(vertices, vertices.length * 2);
+        }
+    }
+
+    //как в TraversalEngine.dfs: идем по ребрам вершины на вершине стека до первой непосещенной
+    private boolean advanceDepthFirst() {
+        if (found >= 0) {
+            return true;
+        }
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        while (size > 0) {
+            int current = vertices[size - 1];
+            int e = cursor[size - 1];
+            if (e == offsets[current + 1]) {
+                size--;
+                continue;
+            }
+            cursor[size - 1] = e + 1;
+            int next = targets[e];
+            if (visited.add(next)) {
+                found = next;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void push(int v) {
+        if (size == vertices.length) {
+            vertices = Arrays.copyOf(vertices, size * 2);
+            cursor = Arrays.copyOf(cursor, size * 2);
+        }
+        vertices[size] = v;
+        cursor[size] = graph.offsets[v];
+        size++;
+    }
+
+    //множество id на открытой адресации; растет вместе с числом посещенных вершин
+    private static final class VisitedSet {
+        private int[] keys = new int[16];
+        private int size;
+
+        VisitedSet() {
+            Arrays.fill(keys, -1);
+        }
+
+        //возвращает false, если v уже было в множестве
+        boolean add(int v) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash();
+            }
+            int mask = keys.length - 1;
+            int i = slot(v, mask);
+            while (keys[i] != -1) {
+                if (keys[i] == v) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = v;
+            size++;
+            return true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private static int slot(int v, int mask) {
+            int h = v * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private void rehash() {
+            int[] old = keys;
+            keys = new int[old.length * 2];
+            Arrays.fill(keys, -1);
+            int mask = keys.length - 1;
+            for (int v : old) {
+                if (v != -1) {
+                    int i = slot(v, mask);
+                    while (keys[i] != -1) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = v;
+                }
+            }
+        }
+    }
+}
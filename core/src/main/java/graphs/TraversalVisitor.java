@@ -0,0 +1,18 @@
+package graphs;
+
+//получает события обхода вместо печати в консоль; все методы необязательные
+interface TraversalVisitor<V> {
+    default void preVisit(V vertex) {
+    }
+
+    default void postVisit(V vertex) {
+    }
+
+    //ребро, по которому вершина to была впервые достигнута
+    default void treeEdge(V from, V to, int weight) {
+    }
+
+    //ребро в уже посещенную вершину
+    default void nonTreeEdge(V from, V to, int weight) {
+    }
+}
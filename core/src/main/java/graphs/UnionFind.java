@@ -0,0 +1,75 @@
+package graphs;
+
+import java.util.*;
+
+//система непересекающихся множеств над id 0..capacity-1: объединение по размеру и сокращение путей вдвое,
+//так что find почти O(1). новые id при росте емкости становятся отдельными множествами
+class UnionFind {
+    private int[] parents;
+    private int[] sizes;
+    private int sets;
+
+    UnionFind(int capacity) {
+        parents = new int[0];
+        sizes = new int[0];
+        ensureCapacity(capacity);
+    }
+
+    public void ensureCapacity(int capacity) {
+        int old = parents.length;
+        if (capacity <= old) {
+            return;
+        }
+        capacity = Math.max(capacity, old * 2);
+        parents = Arrays.copyOf(parents, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        for (int i = old; i < capacity; i++) {
+            parents[i] = i;
+            sizes[i] = 1;
+        }
+        sets += capacity - old;
+    }
+
+    public int find(int x) {
+        while (parents[x] != x) {
+            parents[x] = parents[parents[x]];
+            x = parents[x];
+        }
+        return x;
+    }
+
+    //возвращает false, если a и b уже были в одном множестве
+    public boolean union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return false;
+        }
+        if (sizes[ra] < sizes[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        parents[rb] = ra;
+        sizes[ra] += sizes[rb];
+        sets--;
+        return true;
+    }
+
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    public int size(int x) {
+        return sizes[find(x)];
+    }
+
+    //число множеств среди всех capacity() id
+    public int sets() {
+        return sets;
+    }
+
+    public int capacity() {
+        return parents.length;
+    }
+}
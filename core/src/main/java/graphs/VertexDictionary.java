@@ -0,0 +1,132 @@
+package graphs;
+
+import java.util.*;
+
+//словарь "метка вершины <-> целый id" для IntGraph. метка переводится в id один раз на входе,
+//дальше алгоритмы работают только с id. id освобожденных меток переиспользуются,
+//поэтому id остаются плотными и подходят как индексы массивов.
+//таблица на открытой адресации: ключи и id лежат в массивах, id не упаковываются в Integer
+class VertexDictionary<V> {
+    private Object[] keys;
+    private int[] values;
+    private int size;
+    private Object[] labels = new Object[16];
+    private int capacity;
+    private int[] free = new int[0];
+    private int freeCount;
+
+    public VertexDictionary() {
+        keys = new Object[16];
+        values = new int[16];
+    }
+
+    //id метки, если она уже есть, иначе новый id
+    public int intern(V label) {
+        if (label == null) {
+            throw new IllegalArgumentException("Вершина не может быть null");
+        }
+        int slot = find(label);
+        if (keys[slot] != null) {
+            return values[slot];
+        }
+        int id = freeCount > 0 ? free[--freeCount] : capacity++;
+        if (id >= labels.length) {
+            labels = Arrays.copyOf(labels, labels.length * 2);
+        }
+        labels[id] = label;
+        keys[slot] = label;
+        values[slot] = id;
+        size++;
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return id;
+    }
+
+    //id метки или -1, если ее нет
+    public int id(V label) {
+        if (label == null) {
+            return -1;
+        }
+        int slot = find(label);
+        return keys[slot] != null ? values[slot] : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V label(int id) {
+        return id >= 0 && id < capacity ? (V) labels[id] : null;
+    }
+
+    //удаляет метку и возвращает ее бывший id или -1
+    public int remove(V label) {
+        if (label == null) {
+            return -1;
+        }
+        int slot = find(label);
+        if (keys[slot] == null) {
+            return -1;
+        }
+        int id = values[slot];
+        deleteSlot(slot);
+        labels[id] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, Math.max(16, freeCount * 2));
+        }
+        free[freeCount++] = id;
+        size--;
+        return id;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    //все выданные id меньше этого числа
+    public int capacity() {
+        return capacity;
+    }
+
+    private int hash(Object label) {
+        int h = label.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (keys.length - 1);
+    }
+
+    //ячейка метки или пустая ячейка, куда ее можно положить
+    private int find(Object label) {
+        int mask = keys.length - 1;
+        int i = hash(label);
+        while (keys[i] != null && !keys[i].equals(label)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    //удаление со сдвигом назад, без надгробий
+    private void deleteSlot(int i) {
+        int mask = keys.length - 1;
+        keys[i] = null;
+        for (int j = (i + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+            int home = hash(keys[j]);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                keys[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new Object[newCapacity];
+        values = new int[newCapacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
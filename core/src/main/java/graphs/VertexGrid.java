@@ -0,0 +1,176 @@
+package graphs;
+
+import java.util.function.IntConsumer;
+
+//равномерная сетка над координатами вершин: вершины разложены по ячейкам сортировкой подсчетом,
+//так что выборка по прямоугольнику смотрит только на пересекающиеся с ним ячейки.
+//над сеткой строится пирамида счетчиков (каждый уровень вдвое грубее), по ней рисуется плотность,
+//когда отдельные вершины меньше пикселя
+class VertexGrid {
+    private static final int MAX_SIDE = 1024;
+
+    //границы укладки: по ним же панель вписывает граф в окно, не пересчитывая их на каждый сдвиг вида
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+    private final double cellSize;
+    private final int side;
+    private final double[] x;
+    private final double[] y;
+    //вершины ячейки c: items[cellStart[c]..cellStart[c + 1])
+    private final int[] cellStart;
+    private final int[] items;
+    //counts[level][row * (side >> level) + column]
+    private final int[][] counts;
+
+    VertexGrid(double[] x, double[] y) {
+        this.x = x;
+        this.y = y;
+        int n = x.length;
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, x[i]);
+            maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        if (n == 0) {
+            minX = minY = maxX = maxY = 0;
+        }
+        //в среднем около двух вершин на ячейку, сторона - степень двойки для пирамиды
+        int side = 1;
+        while (side < MAX_SIDE && (long) side * side * 2 < n) {
+            side *= 2;
+        }
+        this.side = side;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.cellSize = Math.max(Math.max(maxX - minX, maxY - minY), 1e-9) / side * (1 + 1e-9);
+
+        int cells = side * side;
+        cellStart = new int[cells + 1];
+        int[] cellOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            cellOf[i] = cell(column(x[i]), row(y[i]));
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        items = new int[n];
+        int[] fill = new int[cells];
+        for (int i = 0; i < n; i++) {
+            int c = cellOf[i];
+            items[cellStart[c] + fill[c]++] = i;
+        }
+
+        int levels = Integer.numberOfTrailingZeros(side) + 1;
+        counts = new int[levels][];
+        counts[0] = new int[cells];
+        for (int c = 0; c < cells; c++) {
+            counts[0][c] = cellStart[c + 1] - cellStart[c];
+        }
+        for (int level = 1; level < levels; level++) {
+            int s = side >> level;
+            int[] finer = counts[level - 1];
+            int[] current = new int[s * s];
+            for (int r = 0; r < s; r++) {
+                for (int c = 0; c < s; c++) {
+                    int fr = 2 * r;
+                    int fc = 2 * c;
+                    current[r * s + c] = finer[fr * 2 * s + fc] + finer[fr * 2 * s + fc + 1]
+                        + finer[(fr + 1) * 2 * s + fc] + finer[(fr + 1) * 2 * s + fc + 1];
+                }
+            }
+            counts[level] = current;
+        }
+    }
+
+    //все вершины, попавшие в прямоугольник
+    public void query(double x0, double y0, double x1, double y1, IntConsumer action) {
+        int c0 = column(x0);
+        int c1 = column(x1);
+        int r0 = row(y0);
+        int r1 = row(y1);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = cell(c, r);
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int v = items[k];
+                    if (x[v] >= x0 && x[v] <= x1 && y[v] >= y0 && y[v] <= y1) {
+                        action.accept(v);
+                    }
+                }
+            }
+        }
+    }
+
+    public double minX() {
+        return minX;
+    }
+
+    public double minY() {
+        return minY;
+    }
+
+    public double maxX() {
+        return maxX;
+    }
+
+    public double maxY() {
+        return maxY;
+    }
+
+    public int levels() {
+        return counts.length;
+    }
+
+    //сторона ячейки уровня level в координатах укладки
+    public double cellSize(int level) {
+        return cellSize * (1 << level);
+    }
+
+    //непустые ячейки уровня level, пересекающие прямоугольник: левый верхний угол ячейки и число вершин в ней
+    public void aggregate(int level, double x0, double y0, double x1, double y1, CellAction action) {
+        int s = side >> level;
+        double size = cellSize(level);
+        int c0 = column(x0) >> level;
+        int c1 = column(x1) >> level;
+        int r0 = row(y0) >> level;
+        int r1 = row(y1) >> level;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int count = counts[level][r * s + c];
+                if (count > 0) {
+                    action.accept(minX + c * size, minY + r * size, count);
+                }
+            }
+        }
+    }
+
+    interface CellAction {
+        void accept(double cellX, double cellY, int count);
+    }
+
+    private int column(double px) {
+        return clamp((int) Math.floor((px - minX) / cellSize));
+    }
+
+    private int row(double py) {
+        return clamp((int) Math.floor((py - minY) / cellSize));
+    }
+
+    private int clamp(int index) {
+        return Math.max(0, Math.min(side - 1, index));
+    }
+
+    private int cell(int column, int row) {
+        return row * side + column;
+    }
+}